@@ -0,0 +1,19 @@
+//---------------------------------------------------------------------------
+// AVLNode.java
+//
+// Implements nodes holding info of class <T> for an AVL tree. Each node
+// also stores the height of the subtree rooted at it.
+//---------------------------------------------------------------------------
+
+public class AVLNode<T> extends BSTNode<T>
+{
+  private int height;            // Height of the subtree rooted at this node
+
+  public AVLNode(T info)
+  {
+    super(info); height = 1;
+  }
+
+  public void setHeight(int height){this.height = height;}
+  public int getHeight(){return height;}
+}
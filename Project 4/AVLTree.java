@@ -0,0 +1,226 @@
+//---------------------------------------------------------------------------
+// AVLTree.java
+//
+// Defines a reference-based BST that keeps itself balanced. After every add
+// and remove the heights of the two subtrees of every node differ by at most
+// one, so the height of the tree stays below about 1.44 log2(n).
+// Nodes are AVLNodes, which store the height of their subtree along with the
+// subtree size kept by every BSTNode.
+//---------------------------------------------------------------------------
+
+import java.util.*;   // Comparator
+import java.util.function.Supplier;
+
+public class AVLTree<T> extends BinarySearchTree<T>
+{
+  private T located;   // element found or added by getOrAdd
+
+  public AVLTree()
+  // Precondition: T implements Comparable
+  // Creates an empty AVL tree object - uses the natural order of elements.
+  {
+    super();
+  }
+
+  public AVLTree(Comparator<T> comp)
+  // Creates an empty AVL tree object - uses Comparator comp for order
+  // of elements.
+  {
+    super(comp);
+  }
+
+  private int height(BSTNode<T> node)
+  // Returns the height of the subtree rooted at node, 0 if node is null.
+  {
+    if (node == null)
+      return 0;
+    else
+      return ((AVLNode<T>) node).getHeight();
+  }
+
+  private void updateHeight(BSTNode<T> node)
+  // Recomputes the height and size of node from the heights and sizes of its
+  // children.
+  {
+    ((AVLNode<T>) node).setHeight(1 + Math.max(height(node.getLeft()), height(node.getRight())));
+    updateSize(node);
+  }
+
+  private int balanceFactor(BSTNode<T> node)
+  // Returns the height of the left subtree of node minus the height of its
+  // right subtree.
+  {
+    return height(node.getLeft()) - height(node.getRight());
+  }
+
+  private BSTNode<T> rotateRight(BSTNode<T> node)
+  // Moves the left child of node up to node's position and returns it.
+  {
+    BSTNode<T> newRoot = node.getLeft();
+    node.setLeft(newRoot.getRight());
+    newRoot.setRight(node);
+    updateHeight(node);
+    updateHeight(newRoot);
+    return newRoot;
+  }
+
+  private BSTNode<T> rotateLeft(BSTNode<T> node)
+  // Moves the right child of node up to node's position and returns it.
+  {
+    BSTNode<T> newRoot = node.getRight();
+    node.setRight(newRoot.getLeft());
+    newRoot.setLeft(node);
+    updateHeight(node);
+    updateHeight(newRoot);
+    return newRoot;
+  }
+
+  private BSTNode<T> balance(BSTNode<T> node)
+  // Updates the height of node and restores the AVL property at node, whose
+  // subtrees differ in height by at most two. Returns the root of the subtree.
+  {
+    updateHeight(node);
+    int factor = balanceFactor(node);
+    if (factor > 1)           // Left subtree is too tall
+    {
+      if (balanceFactor(node.getLeft()) < 0)
+        node.setLeft(rotateLeft(node.getLeft()));     // Left-right case
+      return rotateRight(node);
+    }
+    else if (factor < -1)     // Right subtree is too tall
+    {
+      if (balanceFactor(node.getRight()) > 0)
+        node.setRight(rotateRight(node.getRight()));  // Right-left case
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private BSTNode<T> recAdd(T element, BSTNode<T> node)
+  // Adds element to tree rooted at node; tree retains its BST and AVL
+  // properties. Returns the root of the subtree.
+  {
+    if (node == null)
+      // Addition place found
+      return new AVLNode<T>(element);
+    else if (comp.compare(element, node.getInfo()) <= 0)
+      node.setLeft(recAdd(element, node.getLeft()));    // Add in left subtree
+    else
+      node.setRight(recAdd(element, node.getRight()));  // Add in right subtree
+    return balance(node);
+  }
+
+  public boolean add (T element)
+  // Adds element to this tree. The tree retains its BST and AVL properties.
+  {
+    root = recAdd(element, root);
+    return true;
+  }
+
+  private BSTNode<T> recGetOrAdd(T key, Supplier<? extends T> supplier, BSTNode<T> node)
+  // Finds the element of the tree rooted at node that compares equal to key,
+  // adding supplier.get() if there is none, and keeps it in located. Sets
+  // found to true if key was found. Returns the root of the subtree.
+  {
+    if (node == null)
+    {
+      // Addition place found
+      located = supplier.get();
+      return new AVLNode<T>(located);
+    }
+    int result = comp.compare(key, node.getInfo());
+    if (result == 0)
+    {
+      found = true;
+      located = node.getInfo();
+      return node;
+    }
+    else if (result < 0)
+      node.setLeft(recGetOrAdd(key, supplier, node.getLeft()));
+    else
+      node.setRight(recGetOrAdd(key, supplier, node.getRight()));
+    return found ? node : balance(node);    // Nothing changed below if found
+  }
+
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this tree such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it. The
+  // tree retains its BST and AVL properties.
+  {
+    found = false;
+    root = recGetOrAdd(key, supplier, root);
+    T element = located;
+    located = null;
+    return element;
+  }
+
+  private BSTNode<T> recRemove(T target, BSTNode<T> node)
+  // Removes element with info i from tree rooted at node such that
+  // comp.compare(target, i) == 0 and sets found to true; if no such node
+  // exists, sets found to false. Returns the root of the subtree.
+  {
+    if (node == null)
+    {
+      found = false;
+      return null;
+    }
+    else if (comp.compare(target, node.getInfo()) < 0)
+      node.setLeft(recRemove(target, node.getLeft()));
+    else if (comp.compare(target, node.getInfo()) > 0)
+      node.setRight(recRemove(target, node.getRight()));
+    else
+    {
+      found = true;
+      if (node.getLeft() == null)
+        return node.getRight();
+      else if (node.getRight() == null)
+        return node.getLeft();
+      else
+      {
+        // Replace info with the predecessor's and remove the predecessor
+        node.setInfo(maxInfo(node.getLeft()));
+        node.setLeft(removeMax(node.getLeft()));
+      }
+    }
+    return balance(node);
+  }
+
+  private T maxInfo(BSTNode<T> node)
+  // Returns the information held in the rightmost node of the subtree.
+  {
+    while (node.getRight() != null)
+      node = node.getRight();
+    return node.getInfo();
+  }
+
+  private BSTNode<T> removeMax(BSTNode<T> node)
+  // Removes the rightmost node of the subtree rooted at node and returns the
+  // root of the remaining subtree.
+  {
+    if (node.getRight() == null)
+      return node.getLeft();
+    node.setRight(removeMax(node.getRight()));
+    return balance(node);
+  }
+
+  public boolean remove (T target)
+  // Removes a node with info i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such node exists, returns false.
+  {
+    root = recRemove(target, root);
+    return found;
+  }
+
+  public boolean isBalanced()
+  // Returns true if the tree is balanced. Every node below the root is kept
+  // balanced by add and remove, so only the stored heights of the root's
+  // children need to be checked.
+  {
+    return isEmpty() || Math.abs(balanceFactor(root)) <= 1;
+  }
+
+  public void rebalance()
+  // Does nothing; the tree is always balanced.
+  {
+  }
+}
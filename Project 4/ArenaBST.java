@@ -0,0 +1,614 @@
+import java.util.*; // Iterator, Comparator, Arrays
+import java.util.function.Supplier;
+
+// Implements BSTInterface with the same methods as BinarySearchTree, keeping the fields of the nodes in arrays.
+// Node i holds info[i], the indices of its children in left[i] and right[i], and the size of its subtree in size[i].
+// Removed nodes go on a free list linked through left[] and are reused by later adds, so once the arrays are large
+// enough adding and removing allocate nothing and leave no garbage behind. The arrays double when full.
+public class ArenaBST<T> implements BSTInterface<T> {
+    protected static final int DEFCAP = 16;     // Default tree capacity
+    protected static final int NUL = -1;        // Variable for invalid index
+
+    protected Comparator<T> comp;       // Comparator used for all comparisons
+    protected T[] info;                 // Contains the element of each node
+    protected int[] left;               // Contains the index of the left child of each node
+    protected int[] right;              // Contains the index of the right child of each node
+    protected int[] size;               // Contains the number of nodes in the subtree of each node
+    protected int root = NUL;           // Root node
+    protected int nextUnused = 0;       // Indices from nextUnused on have never been used
+    protected int free = NUL;           // First index of the free list
+    private int[] path = new int[64];   // Nodes on the search path, reused by getOrAdd and remove
+
+    // Default constructor
+    public ArenaBST() {
+        this(DEFCAP);
+    }
+
+    // Constructor with custom capacity
+    public ArenaBST(int customCap) {
+        this(customCap, naturalOrder());
+    }
+
+    // Constructor with custom comparator
+    public ArenaBST(Comparator<T> comp) {
+        this(DEFCAP, comp);
+    }
+
+    // Constructor with custom capacity and custom comparator
+    public ArenaBST(int customCap, Comparator<T> comp) {
+        customCap = Math.max(customCap, 1);
+        info = (T[]) new Object[customCap];
+        left = new int[customCap];
+        right = new int[customCap];
+        size = new int[customCap];
+        this.comp = comp;
+    }
+
+    // Creates and returns a balanced tree holding elements, using the natural order of elements.
+    // Precondition: T implements Comparable and elements is sorted in natural order
+    public static <T> ArenaBST<T> buildFromSorted(T[] elements) {
+        return buildFromSorted(Arrays.asList(elements).iterator(), elements.length);
+    }
+
+    // Creates and returns a balanced tree holding the next n elements, using the natural order of elements.
+    // Precondition: T implements Comparable and elements yields at least n elements in natural order
+    public static <T> ArenaBST<T> buildFromSorted(Iterator<T> elements, int n) {
+        return buildFromSorted(elements, n, ArenaBST.<T>naturalOrder());
+    }
+
+    // Creates and returns a balanced tree holding the next n elements, using Comparator comp for order of elements.
+    // The elements take indices 0 to n - 1 in order. No comparisons are made.
+    // Precondition: elements yields at least n elements in the order of comp
+    public static <T> ArenaBST<T> buildFromSorted(Iterator<T> elements, int n, Comparator<T> comp) {
+        ArenaBST<T> tree = new ArenaBST<T>(n, comp);
+        for (int i = 0; i < n; i++)
+            tree.info[i] = elements.next();
+        tree.nextUnused = n;
+        tree.root = tree.linkSorted(0, n - 1);
+        return tree;
+    }
+
+    // Links the nodes at indices low to high into a balanced tree and returns its root.
+    private int linkSorted(int low, int high) {
+        if (low > high)
+            return NUL;
+        int mid = (low + high) >>> 1;
+        left[mid] = linkSorted(low, mid - 1);
+        right[mid] = linkSorted(mid + 1, high);
+        size[mid] = high - low + 1;
+        return mid;
+    }
+
+    // Returns a comparator that uses the natural order of elements.
+    // Precondition: T implements Comparable
+    private static <T> Comparator<T> naturalOrder() {
+        return new Comparator<T>() {
+            public int compare(T element1, T element2) {
+                return ((Comparable)element1).compareTo(element2);
+            }
+        };
+    }
+
+    // Returns false; the arrays grow when they run out of room.
+    public boolean isFull() {
+        return false;
+    }
+
+    // Returns true if the tree holds no elements. Otherwise returns false.
+    public boolean isEmpty() {
+        return root == NUL;
+    }
+
+    // Returns the number of elements in the tree.
+    public int size() {
+        return subtreeSize(root);
+    }
+
+    // Returns the number of elements in the subtree rooted at node.
+    private int subtreeSize(int node) {
+        if (node == NUL)
+            return 0;
+        return size[node];
+    }
+
+    // Takes an index off the free list, or the next unused index, doubling the arrays if they are full.
+    // Stores element there as a node without children and returns the index.
+    private int newNode(T element) {
+        int node;
+        if (free != NUL) {
+            node = free;
+            free = left[node];
+        }
+        else {
+            if (nextUnused == info.length) {
+                int newCap = 2 * info.length;
+                info = Arrays.copyOf(info, newCap);
+                left = Arrays.copyOf(left, newCap);
+                right = Arrays.copyOf(right, newCap);
+                size = Arrays.copyOf(size, newCap);
+            }
+            node = nextUnused++;
+        }
+        info[node] = element;
+        left[node] = NUL;
+        right[node] = NUL;
+        size[node] = 1;
+        return node;
+    }
+
+    // Puts node on the free list, dropping its element so that it can be garbage collected.
+    private void freeNode(int node) {
+        info[node] = null;
+        left[node] = free;
+        free = node;
+    }
+
+    // Stores node at position depth of the search path, growing the path if needed.
+    private void record(int depth, int node) {
+        if (depth == path.length)
+            path = Arrays.copyOf(path, 2 * depth);
+        path[depth] = node;
+    }
+
+    // If the tree is empty, returns null. Otherwise returns the smallest element in the tree.
+    public T min() {
+        if (root == NUL)
+            return null;
+        int node = root;
+        while (left[node] != NUL)
+            node = left[node];
+        return info[node];
+    }
+
+    // If the tree is empty, returns null. Otherwise returns the largest element in the tree.
+    public T max() {
+        if (root == NUL)
+            return null;
+        int node = root;
+        while (right[node] != NUL)
+            node = right[node];
+        return info[node];
+    }
+
+    // Returns the smallest element e such that comp.compare(e, target) >= 0. If no such element exists, returns null.
+    public T ceiling(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, info[node]) <= 0) {
+                result = info[node];        // Candidate, look for a smaller one
+                node = left[node];
+            }
+            else
+                node = right[node];
+        }
+        return result;
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) <= 0. If no such element exists, returns null.
+    public T floor(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, info[node]) >= 0) {
+                result = info[node];        // Candidate, look for a larger one
+                node = right[node];
+            }
+            else
+                node = left[node];
+        }
+        return result;
+    }
+
+    // Returns the smallest element e such that comp.compare(e, target) > 0. If no such element exists, returns null.
+    public T higher(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, info[node]) < 0) {
+                result = info[node];        // Candidate, look for a smaller one
+                node = left[node];
+            }
+            else
+                node = right[node];
+        }
+        return result;
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) < 0. If no such element exists, returns null.
+    public T lower(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, info[node]) > 0) {
+                result = info[node];        // Candidate, look for a larger one
+                node = right[node];
+            }
+            else
+                node = left[node];
+        }
+        return result;
+    }
+
+    // Returns true if the tree contains an element e such that comp.compare(target, e) == 0. Otherwise returns false.
+    public boolean contains(T target) {
+        return get(target) != null;
+    }
+
+    // Returns an element e such that comp.compare(target, e) == 0. If no such element exists, returns null.
+    public T get(T target) {
+        int node = root;
+        while (node != NUL) {
+            int result = comp.compare(target, info[node]);
+            if (result < 0)
+                node = left[node];
+            else if (result > 0)
+                node = right[node];
+            else
+                return info[node];
+        }
+        return null;
+    }
+
+    // Adds element to the tree. Returns true since the tree is never full.
+    public boolean add(T element) {
+        int newNode = newNode(element);
+        if (root == NUL) {
+            root = newNode;
+            return true;
+        }
+        int node = root;
+        while (true) {
+            size[node]++;               // Every node on the way gains newNode
+            if (comp.compare(element, info[node]) <= 0) {
+                if (left[node] == NUL) {
+                    left[node] = newNode;
+                    return true;
+                }
+                node = left[node];
+            }
+            else {
+                if (right[node] == NUL) {
+                    right[node] = newNode;
+                    return true;
+                }
+                node = right[node];
+            }
+        }
+    }
+
+    // Returns an element e such that comp.compare(key, e) == 0. If no such e exists, adds supplier.get() to the tree
+    // and returns it. The search records its path, so a hit writes nothing and a miss updates the sizes along the
+    // path without comparing again.
+    public T getOrAdd(T key, Supplier<? extends T> supplier) {
+        int node = root;
+        int depth = 0;
+        int result = 0;
+        while (node != NUL) {
+            result = comp.compare(key, info[node]);
+            if (result == 0)
+                return info[node];
+            record(depth++, node);
+            if (result < 0)
+                node = left[node];
+            else
+                node = right[node];
+        }
+
+        T element = supplier.get();
+        int newNode = newNode(element);
+        for (int i = 0; i < depth; i++)
+            size[path[i]]++;
+        if (depth == 0)
+            root = newNode;
+        else if (result < 0)
+            left[path[depth - 1]] = newNode;
+        else
+            right[path[depth - 1]] = newNode;
+        return element;
+    }
+
+    // Removes an element e such that comp.compare(target, e) == 0 and returns true.
+    // If no such element exists, returns false. The index of the removed node is put on the free list.
+    public boolean remove(T target) {
+        int node = root;
+        int depth = 0;
+        int result;
+        while (node != NUL && (result = comp.compare(target, info[node])) != 0) {
+            record(depth++, node);
+            if (result < 0)
+                node = left[node];
+            else
+                node = right[node];
+        }
+        if (node == NUL)
+            return false;
+        for (int i = 0; i < depth; i++)
+            size[path[i]]--;            // Every node on the way loses one
+
+        int parent = (depth > 0) ? path[depth - 1] : NUL;
+        if (left[node] != NUL && right[node] != NUL) {
+            // Replace info with the predecessor's and remove the predecessor, which has no right child
+            size[node]--;
+            parent = node;
+            int pred = left[node];
+            while (right[pred] != NUL) {
+                size[pred]--;
+                parent = pred;
+                pred = right[pred];
+            }
+            info[node] = info[pred];
+            node = pred;
+        }
+
+        // node has at most one child, which takes its place
+        int child = (left[node] != NUL) ? left[node] : right[node];
+        if (parent == NUL)
+            root = child;
+        else if (left[parent] == node)
+            left[parent] = child;
+        else
+            right[parent] = child;
+        freeNode(node);
+        return true;
+    }
+
+    // Creates and returns an Iterator providing a traversal of the current tree in the order indicated by the argument.
+    // Supports Preorder, Postorder, and Inorder traversal.
+    // The iterator keeps a stack of at most height indices and finds each element when next is called,
+    // so the tree must not be changed while it is in use; use getSnapshotIterator for that.
+    public Iterator<T> getIterator(BSTInterface.Traversal orderType) {
+        return new TreeIterator(orderType);
+    }
+
+    // Walks the tree lazily using an explicit stack of indices.
+    // Inorder: the stack holds the nodes whose info and right subtree remain.
+    // Preorder: the stack holds the roots of the subtrees that remain.
+    // Postorder: the stack holds the path from the root to the next node.
+    private class TreeIterator implements Iterator<T> {
+        private final BSTInterface.Traversal orderType;
+        private int[] stack = new int[16];  // Indices of nodes, grows when needed
+        private int top = 0;                // Number of indices in stack
+
+        TreeIterator(BSTInterface.Traversal orderType) {
+            this.orderType = orderType;
+            if (orderType == BSTInterface.Traversal.Inorder)
+                pushLeftPath(root);
+            else if (orderType == BSTInterface.Traversal.Preorder)
+                push(root);
+            else if (orderType == BSTInterface.Traversal.Postorder)
+                pushPostorderPath(root);
+        }
+
+        // Pushes node unless it is NUL
+        private void push(int node) {
+            if (node != NUL) {
+                if (top == stack.length)
+                    stack = Arrays.copyOf(stack, 2 * top);
+                stack[top++] = node;
+            }
+        }
+
+        // Pushes node and all of its left descendants
+        private void pushLeftPath(int node) {
+            while (node != NUL) {
+                push(node);
+                node = left[node];
+            }
+        }
+
+        // Pushes the path from node to the first node of its subtree in postorder, going left whenever possible and right otherwise
+        private void pushPostorderPath(int node) {
+            while (node != NUL) {
+                push(node);
+                if (left[node] != NUL)
+                    node = left[node];
+                else
+                    node = right[node];
+            }
+        }
+
+        // Returns true if the iteration has more elements; otherwise returns false.
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        // Returns the next element in the iteration.
+        // Throws NoSuchElementException - if the iteration has no more elements
+        public T next() {
+            if (!hasNext())
+                throw new IndexOutOfBoundsException("Illegal invocation of next in ArenaBST iterator.\n");
+            int node = stack[--top];
+            if (orderType == BSTInterface.Traversal.Inorder)
+                pushLeftPath(right[node]);
+            else if (orderType == BSTInterface.Traversal.Preorder) {
+                push(right[node]);
+                push(left[node]);
+            }
+            else if (top > 0) {
+                // Postorder: after a left child comes the parent's right subtree
+                int parent = stack[top - 1];
+                if (left[parent] == node)
+                    pushPostorderPath(right[parent]);
+            }
+            return info[node];
+        }
+
+        // Throws UnsupportedOperationException.
+        // Not supported. Removal during iteration would invalidate the stack.
+        public void remove() {
+            throw new UnsupportedOperationException("Unsupported remove attempted on ArenaBST iterator.\n");
+        }
+    }
+
+    // Creates and returns an Iterator providing an inorder traversal of the elements e such that
+    // comp.compare(low, e) <= 0 and comp.compare(e, high) <= 0.
+    public Iterator<T> rangeIterator(T low, T high) {
+        return new RangeIterator(low, high);
+    }
+
+    // Walks the elements between low and high lazily.
+    // The stack holds the nodes not less than low whose info and right subtree remain, smallest on top.
+    private class RangeIterator implements Iterator<T> {
+        private final T high;
+        private int[] stack = new int[16];  // Indices of nodes, grows when needed
+        private int top = 0;                // Number of indices in stack
+
+        RangeIterator(T low, T high) {
+            this.high = high;
+            int node = root;
+            while (node != NUL) {
+                if (comp.compare(low, info[node]) <= 0) {
+                    push(node);                 // node and its right subtree are in range
+                    node = left[node];
+                }
+                else
+                    node = right[node];         // node and its left subtree are too small
+            }
+        }
+
+        // Pushes node onto the stack
+        private void push(int node) {
+            if (top == stack.length)
+                stack = Arrays.copyOf(stack, 2 * top);
+            stack[top++] = node;
+        }
+
+        // Returns true if the iteration has more elements; otherwise returns false.
+        public boolean hasNext() {
+            if (top > 0 && comp.compare(info[stack[top - 1]], high) > 0)
+                top = 0;    // Every remaining element is too large
+            return top > 0;
+        }
+
+        // Returns the next element in the iteration.
+        // Throws NoSuchElementException - if the iteration has no more elements
+        public T next() {
+            if (!hasNext())
+                throw new IndexOutOfBoundsException("Illegal invocation of next in ArenaBST range iterator.\n");
+            int node = stack[--top];
+            for (int next = right[node]; next != NUL; next = left[next])
+                push(next);
+            return info[node];
+        }
+
+        // Throws UnsupportedOperationException.
+        // Not supported. Removal during iteration would invalidate the stack.
+        public void remove() {
+            throw new UnsupportedOperationException("Unsupported remove attempted on ArenaBST range iterator.\n");
+        }
+    }
+
+    // InOrder is the default, "natural" order.
+    public Iterator<T> iterator() {
+        return getIterator(BSTInterface.Traversal.Inorder);
+    }
+
+    // Returns the number of elements of the tree that are less than target.
+    public int rank(T target) {
+        int count = 0;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, info[node]) <= 0)
+                node = left[node];
+            else {
+                count += subtreeSize(left[node]) + 1;   // node and its left subtree are less
+                node = right[node];
+            }
+        }
+        return count;
+    }
+
+    // Returns the number of elements of the tree that are less than or equal to target.
+    private int rankUpTo(T target) {
+        int count = 0;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, info[node]) < 0)
+                node = left[node];
+            else {
+                count += subtreeSize(left[node]) + 1;   // node and its left subtree are not greater
+                node = right[node];
+            }
+        }
+        return count;
+    }
+
+    // Returns the element with exactly k smaller elements before it in inorder, so select(0) is the smallest element.
+    // If k is not between 0 and size() - 1, returns null.
+    public T select(int k) {
+        int node = root;
+        while (node != NUL) {
+            int leftSize = subtreeSize(left[node]);
+            if (k < leftSize)
+                node = left[node];
+            else if (k > leftSize) {
+                k = k - leftSize - 1;
+                node = right[node];
+            }
+            else
+                return info[node];
+        }
+        return null;
+    }
+
+    // Returns the number of elements e such that comp.compare(low, e) <= 0 and comp.compare(e, high) <= 0.
+    public int countRange(T low, T high) {
+        return Math.max(0, rankUpTo(high) - rank(low));
+    }
+
+    // Prints a graphical representation of the tree.
+    // Does not work for all data types.
+    public void printTree() {
+        printBinaryTree(root, 0);
+    }
+
+    protected void printBinaryTree(int root, int level){
+        if (root == NUL)
+            return;
+        printBinaryTree(right[root], level + 1);
+        if (level != 0) {
+            for(int i = 0; i < level - 1; i++)
+                System.out.print("|\t");
+            System.out.println("|-------" + info[root]);
+        }
+        else
+            System.out.println(info[root]);
+        printBinaryTree(left[root], level + 1);
+    }
+
+    // Returns true if tree is balanced, otherwise false
+    public boolean isBalanced() {
+        return recIsBalanced(root) != -1;
+    }
+
+    // Returns the height of the subtree rooted at node if it is balanced, otherwise returns -1.
+    private int recIsBalanced(int node) {
+        if (node == NUL)
+            return 0;
+        int leftHeight = recIsBalanced(left[node]);
+        if (leftHeight == -1)
+            return -1;
+        int rightHeight = recIsBalanced(right[node]);
+        if (rightHeight == -1)
+            return -1;
+        if (Math.abs(leftHeight - rightHeight) > 1)
+            return -1;
+        return 1 + Math.max(leftHeight, rightHeight);
+    }
+
+    // Restructures the tree into a balanced tree whose nodes take indices 0 to size() - 1 in inorder,
+    // which also empties the free list.
+    public void rebalance() {
+        int n = size();
+        T[] sorted = (T[]) new Object[n];
+        Iterator<T> iter = iterator();
+        for (int i = 0; i < n; i++)
+            sorted[i] = iter.next();
+        System.arraycopy(sorted, 0, info, 0, n);
+        Arrays.fill(info, n, nextUnused, null);
+        root = linkSorted(0, n - 1);
+        nextUnused = n;
+        free = NUL;
+    }
+}
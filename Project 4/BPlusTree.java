@@ -0,0 +1,654 @@
+//---------------------------------------------------------------------------
+// BPlusTree.java
+//
+// Defines a B+ tree implementing BSTInterface. Every node keeps up to fanout
+// keys in one array that is binary searched, so a search follows about
+// log(n) / log(fanout) links instead of the log2(n) links of a binary tree,
+// and each node it visits is a few contiguous cache lines.
+//
+// The elements are kept in the leaves, which are all at the same depth and
+// are linked in order in both directions. Inner nodes hold only separators
+// copied from the leaves. Iterating walks the leaves one after another; as
+// there are no elements above the leaves, the preorder, inorder and
+// postorder traversals all visit the elements in sorted order.
+//
+// Equal elements may be split between neighbouring leaves, so a separator is
+// not less than any element on its left and not greater than any element on
+// its right.
+//---------------------------------------------------------------------------
+
+import java.util.*;   // Iterator, Comparator, Arrays
+import java.util.function.Supplier;
+
+public class BPlusTree<T> implements BSTInterface<T>
+{
+  public static final int DEFFANOUT = 64;   // Default node fanout
+
+  private static final class Node<T>
+  // A leaf holds count elements in keys and is linked to the leaves before
+  // and after it. An inner node holds count + 1 children, keys[i] separating
+  // children[i] and children[i + 1]. Both have room for one key more than
+  // they may keep, so a node is split after that key is added.
+  {
+    T[] keys;
+    int count;              // Number of keys in use
+    Node<T>[] children;     // null for a leaf
+    Node<T> prev, next;     // Neighbouring leaves
+
+    Node(int capacity, boolean leaf)
+    {
+      keys = (T[]) new Object[capacity];
+      if (!leaf)
+        children = new Node[capacity + 1];
+    }
+
+    boolean isLeaf()
+    {
+      return children == null;
+    }
+  }
+
+  protected final Comparator<T> comp;   // used for all comparisons
+  protected final int fanout;           // Most elements of a leaf and most
+                                        // children of an inner node
+  private Node<T> root;                 // A leaf until the first split
+  private int numElements = 0;
+
+  private Node<T> splitNode;            // New right sibling made by a split
+  private T splitKey;                   // Separator of splitNode
+  private boolean found;                // used by getOrAdd
+  private T located;                    // element found or added by getOrAdd
+
+  public BPlusTree()
+  // Precondition: T implements Comparable
+  // Creates an empty B+ tree object with nodes of DEFFANOUT - uses the
+  // natural order of elements.
+  {
+    this(DEFFANOUT);
+  }
+
+  public BPlusTree(int fanout)
+  // Precondition: T implements Comparable
+  // Creates an empty B+ tree object with nodes of fanout - uses the natural
+  // order of elements.
+  {
+    this(fanout, new Comparator<T>()
+    {
+       public int compare(T element1, T element2)
+       {
+         return ((Comparable)element1).compareTo(element2);
+       }
+    });
+  }
+
+  public BPlusTree(Comparator<T> comp)
+  // Creates an empty B+ tree object with nodes of DEFFANOUT - uses
+  // Comparator comp for order of elements.
+  {
+    this(DEFFANOUT, comp);
+  }
+
+  public BPlusTree(int fanout, Comparator<T> comp)
+  // Creates an empty B+ tree object with nodes of fanout - uses Comparator
+  // comp for order of elements. Throws IllegalArgumentException if fanout
+  // is less than 4.
+  {
+    if (fanout < 4)
+      throw new IllegalArgumentException("B+ tree fanout must be at least 4.");
+    this.fanout = fanout;
+    this.comp = comp;
+    root = new Node<T>(fanout + 1, true);
+  }
+
+  public boolean isFull()
+  // Returns false; this link-based tree is never full.
+  {
+    return false;
+  }
+
+  public boolean isEmpty()
+  // Returns true if this tree is empty; otherwise, returns false.
+  {
+    return (numElements == 0);
+  }
+
+  public int size()
+  // Returns the number of elements in this tree.
+  {
+    return numElements;
+  }
+
+  private int lowerBound(Node<T> node, T target)
+  // Returns the first position i of node such that
+  // comp.compare(target, node.keys[i]) <= 0, or node.count if there is none.
+  {
+    int low = 0, high = node.count;
+    while (low < high)
+    {
+      int mid = (low + high) >>> 1;
+      if (comp.compare(target, node.keys[mid]) <= 0)
+        high = mid;
+      else
+        low = mid + 1;
+    }
+    return low;
+  }
+
+  private int upperBound(Node<T> node, T target)
+  // Returns the first position i of node such that
+  // comp.compare(target, node.keys[i]) < 0, or node.count if there is none.
+  {
+    int low = 0, high = node.count;
+    while (low < high)
+    {
+      int mid = (low + high) >>> 1;
+      if (comp.compare(target, node.keys[mid]) < 0)
+        high = mid;
+      else
+        low = mid + 1;
+    }
+    return low;
+  }
+
+  private Node<T> findLeaf(T target, boolean after)
+  // Returns the leaf where the elements not less than target begin, or the
+  // elements greater than target if after is true. They may also begin at
+  // the start of the next leaf.
+  {
+    Node<T> node = root;
+    while (!node.isLeaf())
+    {
+      if (after)
+        node = node.children[upperBound(node, target)];
+      else
+        node = node.children[lowerBound(node, target)];
+    }
+    return node;
+  }
+
+  private T elementAt(Node<T> leaf, int pos)
+  // Returns the element at position pos of leaf, the first element of the
+  // next leaf if pos is leaf.count, or null if there is no next leaf.
+  {
+    if (pos < leaf.count)
+      return leaf.keys[pos];
+    else if (leaf.next != null)
+      return leaf.next.keys[0];
+    else
+      return null;
+  }
+
+  private T elementBefore(Node<T> leaf, int pos)
+  // Returns the element before position pos of leaf, the last element of the
+  // previous leaf if pos is 0, or null if there is no previous leaf.
+  {
+    if (pos > 0)
+      return leaf.keys[pos - 1];
+    else if (leaf.prev != null)
+      return leaf.prev.keys[leaf.prev.count - 1];
+    else
+      return null;
+  }
+
+  private Node<T> firstLeaf()
+  // Returns the leaf holding the smallest elements.
+  {
+    Node<T> node = root;
+    while (!node.isLeaf())
+      node = node.children[0];
+    return node;
+  }
+
+  public T min()
+  // If this tree is empty, returns null;
+  // otherwise returns the smallest element of the tree.
+  {
+    return elementAt(firstLeaf(), 0);
+  }
+
+  public T max()
+  // If this tree is empty, returns null;
+  // otherwise returns the largest element of the tree.
+  {
+    Node<T> node = root;
+    while (!node.isLeaf())
+      node = node.children[node.count];
+    return elementBefore(node, node.count);
+  }
+
+  public T ceiling(T target)
+  // Returns the smallest element e of this tree such that
+  // comp.compare(e, target) >= 0; if no such element exists, returns null.
+  {
+    Node<T> leaf = findLeaf(target, false);
+    return elementAt(leaf, lowerBound(leaf, target));
+  }
+
+  public T floor(T target)
+  // Returns the largest element e of this tree such that
+  // comp.compare(e, target) <= 0; if no such element exists, returns null.
+  {
+    Node<T> leaf = findLeaf(target, true);
+    return elementBefore(leaf, upperBound(leaf, target));
+  }
+
+  public T higher(T target)
+  // Returns the smallest element e of this tree such that
+  // comp.compare(e, target) > 0; if no such element exists, returns null.
+  {
+    Node<T> leaf = findLeaf(target, true);
+    return elementAt(leaf, upperBound(leaf, target));
+  }
+
+  public T lower(T target)
+  // Returns the largest element e of this tree such that
+  // comp.compare(e, target) < 0; if no such element exists, returns null.
+  {
+    Node<T> leaf = findLeaf(target, false);
+    return elementBefore(leaf, lowerBound(leaf, target));
+  }
+
+  public boolean contains (T target)
+  // Returns true if this tree contains an element i such that
+  // comp.compare(target, i) == 0; otherwise, returns false.
+  {
+    return get(target) != null;
+  }
+
+  public T get(T target)
+  // Returns an element i of this tree such that comp.compare(target, i) == 0;
+  // if no such element exists, returns null.
+  {
+    T element = ceiling(target);
+    if (element != null && comp.compare(target, element) == 0)
+      return element;
+    else
+      return null;
+  }
+
+  private void insertAt(Node<T> node, int pos, T key, Node<T> child)
+  // Inserts key at position pos of node, and for an inner node child just
+  // after it.
+  {
+    System.arraycopy(node.keys, pos, node.keys, pos + 1, node.count - pos);
+    node.keys[pos] = key;
+    if (!node.isLeaf())
+    {
+      System.arraycopy(node.children, pos + 1, node.children, pos + 2, node.count - pos);
+      node.children[pos + 1] = child;
+    }
+    node.count++;
+  }
+
+  private void split(Node<T> node)
+  // Moves the upper half of the keys of the overfull node into a new right
+  // sibling, which is left in splitNode with its separator in splitKey. A
+  // leaf keeps a copy of the separator; an inner node passes its middle key
+  // up.
+  {
+    int half = node.count / 2;
+    Node<T> right;
+    if (node.isLeaf())
+    {
+      right = new Node<T>(fanout + 1, true);
+      right.count = node.count - half;
+      System.arraycopy(node.keys, half, right.keys, 0, right.count);
+      splitKey = right.keys[0];
+      right.next = node.next;
+      right.prev = node;
+      if (node.next != null)
+        node.next.prev = right;
+      node.next = right;
+    }
+    else
+    {
+      right = new Node<T>(fanout, false);
+      right.count = node.count - half - 1;
+      System.arraycopy(node.keys, half + 1, right.keys, 0, right.count);
+      System.arraycopy(node.children, half + 1, right.children, 0, right.count + 1);
+      Arrays.fill(node.children, half + 1, node.count + 1, null);
+      splitKey = node.keys[half];
+    }
+    Arrays.fill(node.keys, half, node.count, null);
+    node.count = half;
+    splitNode = right;
+  }
+
+  private boolean recAdd(T key, Supplier<? extends T> supplier, Node<T> node)
+  // Adds an element to the subtree rooted at node: key itself if supplier is
+  // null, otherwise supplier.get() unless an element e such that
+  // comp.compare(key, e) == 0 exists, in which case found is set to true.
+  // The element found or added is kept in located. Returns true if node had
+  // to be split.
+  {
+    int pos;
+    if (supplier == null)
+      pos = upperBound(node, key);       // Keep equal elements in order added
+    else
+      pos = lowerBound(node, key);       // Stop at the first equal element
+    if (node.isLeaf())
+    {
+      if (supplier != null)
+      {
+        located = elementAt(node, pos);
+        if (located != null && comp.compare(key, located) == 0)
+        {
+          found = true;
+          return false;
+        }
+        key = supplier.get();
+      }
+      located = key;
+      insertAt(node, pos, key, null);
+    }
+    else if (recAdd(key, supplier, node.children[pos]))
+      insertAt(node, pos, splitKey, splitNode);
+    else
+      return false;
+
+    if (node.count < node.keys.length)
+      return false;
+    split(node);
+    return true;
+  }
+
+  private T addElement(T key, Supplier<? extends T> supplier)
+  // Runs recAdd from the root, growing the tree by a level if the root
+  // splits. Returns the element found or added.
+  {
+    found = false;
+    if (recAdd(key, supplier, root))
+    {
+      Node<T> newRoot = new Node<T>(fanout, false);
+      newRoot.keys[0] = splitKey;
+      newRoot.children[0] = root;
+      newRoot.children[1] = splitNode;
+      newRoot.count = 1;
+      root = newRoot;
+    }
+    splitNode = null;
+    splitKey = null;
+    if (!found)
+      numElements++;
+    T element = located;
+    located = null;
+    return element;
+  }
+
+  public boolean add (T element)
+  // Adds element to this tree. The tree retains its B+ tree property.
+  {
+    addElement(element, null);
+    return true;
+  }
+
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this tree such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it. One
+  // descent finds key or the place to add it.
+  {
+    return addElement(key, supplier);
+  }
+
+  private int minKeys(Node<T> node)
+  // Returns the fewest keys node may keep unless it is the root.
+  {
+    if (node.isLeaf())
+      return fanout / 2;
+    else
+      return (fanout - 1) / 2;
+  }
+
+  private void removeAt(Node<T> node, int pos)
+  // Removes the key at position pos of node, and for an inner node the child
+  // just after it.
+  {
+    System.arraycopy(node.keys, pos + 1, node.keys, pos, node.count - pos - 1);
+    if (!node.isLeaf())
+    {
+      System.arraycopy(node.children, pos + 2, node.children, pos + 1, node.count - pos - 1);
+      node.children[node.count] = null;
+    }
+    node.count--;
+    node.keys[node.count] = null;
+  }
+
+  private void fixChild(Node<T> parent, int pos)
+  // If child pos of parent has too few keys, moves one key into it from a
+  // neighbouring child, or merges it with that child if both fit in one
+  // node.
+  {
+    Node<T> child = parent.children[pos];
+    if (child.count >= minKeys(child))
+      return;
+    if (pos == parent.count)
+      pos--;                             // The last child pairs with the one before
+    Node<T> left = parent.children[pos];
+    Node<T> right = parent.children[pos + 1];
+
+    if (left.isLeaf())
+    {
+      if (left.count + right.count <= fanout)
+      {
+        // Merge right into left
+        System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+        left.count += right.count;
+        left.next = right.next;
+        if (right.next != null)
+          right.next.prev = left;
+        removeAt(parent, pos);
+      }
+      else if (left.count < right.count)
+      {
+        insertAt(left, left.count, right.keys[0], null);
+        removeAt(right, 0);
+        parent.keys[pos] = right.keys[0];
+      }
+      else
+      {
+        insertAt(right, 0, left.keys[left.count - 1], null);
+        removeAt(left, left.count - 1);
+        parent.keys[pos] = right.keys[0];
+      }
+    }
+    else
+    {
+      if (left.count + right.count + 1 < fanout)
+      {
+        // Merge the separator and right into left
+        left.keys[left.count] = parent.keys[pos];
+        System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+        System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+        left.count += right.count + 1;
+        removeAt(parent, pos);
+      }
+      else if (left.count < right.count)
+      {
+        // Rotate the first child of right through the parent into left
+        left.keys[left.count] = parent.keys[pos];
+        left.children[left.count + 1] = right.children[0];
+        left.count++;
+        parent.keys[pos] = right.keys[0];
+        System.arraycopy(right.children, 1, right.children, 0, right.count);
+        right.children[right.count] = null;
+        System.arraycopy(right.keys, 1, right.keys, 0, right.count - 1);
+        right.count--;
+        right.keys[right.count] = null;
+      }
+      else
+      {
+        // Rotate the last child of left through the parent into right
+        System.arraycopy(right.keys, 0, right.keys, 1, right.count);
+        System.arraycopy(right.children, 0, right.children, 1, right.count + 1);
+        right.keys[0] = parent.keys[pos];
+        right.children[0] = left.children[left.count];
+        right.count++;
+        parent.keys[pos] = left.keys[left.count - 1];
+        left.children[left.count] = null;
+        left.count--;
+        left.keys[left.count] = null;
+      }
+    }
+  }
+
+  private boolean recRemove(T target, Node<T> node)
+  // Removes an element i such that comp.compare(target, i) == 0 from the
+  // subtree rooted at node and returns true; if no such element exists,
+  // returns false. Children left with too few keys are fixed, but node
+  // itself may be left with too few.
+  {
+    int pos = lowerBound(node, target);
+    if (node.isLeaf())
+    {
+      if (pos == node.count || comp.compare(target, node.keys[pos]) != 0)
+        return false;
+      removeAt(node, pos);
+      return true;
+    }
+
+    // Elements equal to a separator may be on either side of it
+    while (!recRemove(target, node.children[pos]))
+    {
+      if (pos == node.count || comp.compare(target, node.keys[pos]) != 0)
+        return false;
+      pos++;
+    }
+    fixChild(node, pos);
+    return true;
+  }
+
+  public boolean remove (T target)
+  // Removes an element i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such element exists, returns false.
+  {
+    if (!recRemove(target, root))
+      return false;
+    numElements--;
+    if (!root.isLeaf() && root.count == 0)
+      root = root.children[0];           // The tree loses a level
+    return true;
+  }
+
+  public Iterator<T> getIterator(BSTInterface.Traversal orderType)
+  // Creates and returns an Iterator providing a traversal of the current
+  // tree. The elements are all kept in the leaves, so every order visits
+  // them in sorted order.
+  {
+    return new LeafIterator(firstLeaf(), 0, null);
+  }
+
+  public Iterator<T> rangeIterator(T low, T high)
+  // Creates and returns an Iterator providing an inorder traversal of the
+  // elements e of the current tree such that comp.compare(low, e) <= 0 and
+  // comp.compare(e, high) <= 0.
+  {
+    Node<T> leaf = findLeaf(low, false);
+    return new LeafIterator(leaf, lowerBound(leaf, low), high);
+  }
+
+  private class LeafIterator implements Iterator<T>
+  // Walks the leaves from position pos of leaf, up to the last element not
+  // greater than high, or to the end of the tree if high is null.
+  {
+    private Node<T> leaf;                // null when the iteration is over
+    private int pos;
+    private final T high;
+
+    LeafIterator(Node<T> leaf, int pos, T high)
+    {
+      this.leaf = leaf;
+      this.pos = pos;
+      this.high = high;
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      if (leaf != null && pos == leaf.count)
+      {
+        leaf = leaf.next;
+        pos = 0;
+      }
+      if (leaf != null && high != null && comp.compare(leaf.keys[pos], high) > 0)
+        leaf = null;                     // Every remaining element is too large
+      return leaf != null;
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      if (!hasNext())
+        throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                   " in BPlusTree iterator.\n");
+      return leaf.keys[pos++];
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Use the remove method of the tree.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                            + "BPlusTree iterator.\n");
+    }
+  }
+
+  public Iterator<T> iterator()
+  // InOrder is the default, "natural" order.
+  {
+    return getIterator(BSTInterface.Traversal.Inorder);
+  }
+
+  public void printTree() {
+    printNode(root, 0);
+  }
+
+  // Prints the subtree rooted at node sideways, largest keys first, with
+  // each leaf on one line and each separator between its two subtrees.
+  private void printNode(Node<T> node, int level){
+    if (node.isLeaf())
+      printLine(Arrays.toString(Arrays.copyOf(node.keys, node.count)), level);
+    else {
+      for (int i = node.count; i >= 0; i--) {
+        printNode(node.children[i], level+1);
+        if (i > 0)
+          printLine(node.keys[i-1], level);
+      }
+    }
+  }
+
+  private void printLine(Object item, int level){
+    if(level!=0){
+        for(int i=0;i<level-1;i++)
+            System.out.print("|\t");
+        System.out.println("|-------"+item);
+    }
+    else
+        System.out.println(item);
+  }
+
+  // Returns true if every leaf is at the same depth, which add and remove
+  // always keep.
+  public boolean isBalanced() {
+    return leafDepth(root) >= 0;
+  }
+
+  // Returns the depth of the leaves below node, or -1 if they differ.
+  private int leafDepth(Node<T> node) {
+    if (node.isLeaf())
+      return 0;
+    int depth = leafDepth(node.children[0]);
+    for (int i = 1; i <= node.count && depth >= 0; i++) {
+      if (leafDepth(node.children[i]) != depth)
+        depth = -1;
+    }
+    if (depth < 0)
+      return -1;
+    return depth + 1;
+  }
+
+  public void rebalance()
+  // Does nothing; the tree is always balanced.
+  {
+  }
+}
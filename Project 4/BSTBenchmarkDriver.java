@@ -0,0 +1,807 @@
+import java.io.*;
+import java.util.*;
+
+// Benchmarks for the binary search tree implementations.
+// Run with the name of a benchmark as the argument, or with no argument to run all benchmarks.
+// Benchmarks that index the Bible read kjv.txt from the working directory, or another file given as the second argument.
+// Every benchmark is run once to warm up the JVM before the measured runs.
+public class BSTBenchmarkDriver {
+    private static final int RUNS = 3;  // Number of measured runs per benchmark
+    private static String bibleFile = "kjv.txt";    // Text indexed by the Bible benchmarks
+
+    public static void main(String[] args) {
+        String choice = (args.length > 0) ? args[0] : "all";
+        if (args.length > 1)
+            bibleFile = args[1];
+
+        if (choice.equals("all") || choice.equals("matrixInsert"))
+            benchmarkMatrixInsert();
+        if (choice.equals("all") || choice.equals("frozenGet"))
+            benchmarkFrozenGet();
+        if (choice.equals("all") || choice.equals("compactGet"))
+            benchmarkCompactGet();
+        if (choice.equals("all") || choice.equals("ingest"))
+            benchmarkIngest();
+        if (choice.equals("all") || choice.equals("sortedInsert"))
+            benchmarkSortedInsert();
+        if (choice.equals("all") || choice.equals("getOrAdd"))
+            benchmarkGetOrAdd();
+        if (choice.equals("all") || choice.equals("bulkLoad"))
+            benchmarkBulkLoad();
+        if (choice.equals("all") || choice.equals("concurrentGet"))
+            benchmarkConcurrentGet();
+        if (choice.equals("all") || choice.equals("snapshot"))
+            benchmarkSnapshot();
+        if (choice.equals("all") || choice.equals("zipfReplay"))
+            benchmarkZipfReplay();
+        if (choice.equals("all") || choice.equals("bplusGet"))
+            benchmarkBPlusGet();
+        if (choice.equals("all") || choice.equals("parallelStream"))
+            benchmarkParallelStream();
+        if (choice.equals("all") || choice.equals("threadedScan"))
+            benchmarkThreadedScan();
+        if (choice.equals("all") || choice.equals("primitiveGet"))
+            benchmarkPrimitiveGet();
+        if (choice.equals("all") || choice.equals("arenaChurn"))
+            benchmarkArenaChurn();
+        if (choice.equals("all") || choice.equals("hashFrontGet"))
+            benchmarkHashFrontGet();
+    }
+
+    // Bulk inserts 100,000 Integers in random order into a MatrixBST using child index storage.
+    // Slot allocation used to scan the data array for every insert, this shows the cost of allocation.
+    public static void benchmarkMatrixInsert() {
+        int n = 100000;
+        Integer[] values = shuffledIntegers(n, 42);
+        System.out.println("======= MatrixBST bulk insert of " + n + " Integers =======");
+        for (int run = 0; run <= RUNS; run++) {
+            long start = System.nanoTime();
+            MatrixBST<Integer> tree = new MatrixBST<Integer>(n, MatrixBST.Storage.ChildIndex);
+            for (Integer value: values)
+                tree.add(value);
+            printTime(run, start);
+        }
+    }
+
+    // Looks up 1,000,000 random Integers in trees of 1,000,000 Integers built in random order.
+    // Compares the linked tree, the child index MatrixBST and the EytzingerBST frozen from the linked tree.
+    public static void benchmarkFrozenGet() {
+        int n = 1000000;
+        Integer[] values = shuffledIntegers(n, 42);
+        Integer[] targets = shuffledIntegers(n, 7);
+        BinarySearchTree<Integer> linked = new BinarySearchTree<Integer>();
+        MatrixBST<Integer> matrix = new MatrixBST<Integer>(n, MatrixBST.Storage.ChildIndex);
+        for (Integer value: values) {
+            linked.add(value);
+            matrix.add(value);
+        }
+        EytzingerBST<Integer> frozen = new EytzingerBST<Integer>(linked);
+
+        System.out.println("======= get of " + n + " Integers in trees of " + n + " Integers =======");
+        timeGets("BinarySearchTree", linked, targets);
+        timeGets("MatrixBST (ChildIndex)", matrix, targets);
+        timeGets("EytzingerBST", frozen, targets);
+    }
+
+    // Looks up every word of a shuffled list of 500,000 words in a child index MatrixBST before and after compaction.
+    // Half of the words are removed and added again first, so the nodes are scattered across the arrays.
+    public static void benchmarkCompactGet() {
+        int n = 500000;
+        String[] words = randomWords(n, 42);
+        MatrixBST<String> tree = new MatrixBST<String>(n, MatrixBST.Storage.ChildIndex);
+        for (String word: words)
+            tree.add(word);
+        for (int i = 0; i < n; i += 2)
+            tree.remove(words[i]);
+        for (int i = 0; i < n; i += 2)
+            tree.add(words[i]);
+
+        System.out.println("======= get of " + n + " words in a MatrixBST of " + n + " words =======");
+        timeGets("Scattered", tree, words);
+        tree.compact(MatrixBST.Layout.BreadthFirst);
+        timeGets("After compact(BreadthFirst)", tree, words);
+        tree.compact(MatrixBST.Layout.VanEmdeBoas);
+        timeGets("After compact(VanEmdeBoas)", tree, words);
+    }
+
+    // Indexes every word of the Bible the way SearchBibleWord does: get the word, and add it if it is not in the tree.
+    // Compares the linked tree with the AVL and red-black trees.
+    public static void benchmarkIngest() {
+        String[] words = bibleWords();
+        System.out.println("======= Indexing " + words.length + " words =======");
+        for (int i = 0; i < 3; i++) {
+            String name = (i == 0) ? "BinarySearchTree" : (i == 1) ? "AVLTree" : "RedBlackTree";
+            System.out.println(name + ":");
+            for (int run = 0; run <= RUNS; run++) {
+                BSTInterface<Reference> tree = (i == 0) ? new BinarySearchTree<Reference>()
+                                             : (i == 1) ? new AVLTree<Reference>() : new RedBlackTree<Reference>();
+                long start = System.nanoTime();
+                for (String word: words) {
+                    if (tree.get(new Reference(word)) == null)
+                        tree.add(new Reference(word));
+                }
+                printTime(run, start);
+            }
+        }
+    }
+
+    // Inserts 50,000 Integers in sorted order into a BinarySearchTree, building a single path 50,000 levels deep,
+    // then gets and removes the deepest element. Recursive add, get and remove overflowed the stack on this tree.
+    // Inserting in sorted order takes quadratic time, so 1,000,000 elements would take hours instead of seconds.
+    public static void benchmarkSortedInsert() {
+        int n = 50000;
+        System.out.println("======= BinarySearchTree insert of " + n + " sorted Integers =======");
+        for (int run = 0; run <= RUNS; run++) {
+            long start = System.nanoTime();
+            BinarySearchTree<Integer> tree = new BinarySearchTree<Integer>();
+            for (int i = 0; i < n; i++)
+                tree.add(i);
+            if (tree.get(n - 1) == null || !tree.remove(n - 1) || tree.size() != n - 1)
+                System.out.println("Deepest element was not found!");
+            printTime(run, start);
+        }
+    }
+
+    // Indexes every word of the Bible with get followed by add on a miss, and with getOrAdd and a reused probe.
+    // Counts the comparator calls of both ways for every tree, then times both ways with the same counting comparator.
+    public static void benchmarkGetOrAdd() {
+        String[] words = bibleWords();
+        String[] names = {"BinarySearchTree", "MatrixBST (ChildIndex)", "AVLTree", "RedBlackTree"};
+        final long[] calls = new long[1];
+        Comparator<Reference> counting = (a, b) -> {
+            calls[0]++;
+            return a.compareTo(b);
+        };
+
+        System.out.println("======= Comparator calls indexing " + words.length + " words =======");
+        for (int i = 0; i < names.length; i++) {
+            calls[0] = 0;
+            indexWords(newReferenceTree(i, counting), words, false);
+            long separate = calls[0];
+            calls[0] = 0;
+            indexWords(newReferenceTree(i, counting), words, true);
+            System.out.println(names[i] + ": get + add " + separate + ", getOrAdd " + calls[0]
+                               + " (" + (100 * (separate - calls[0]) / separate) + "% fewer)");
+        }
+
+        System.out.println("======= Indexing " + words.length + " words with get + add and getOrAdd =======");
+        for (int i = 0; i < names.length; i++) {
+            for (int way = 0; way < 2; way++) {
+                System.out.println(names[i] + ((way == 0) ? ", get + add:" : ", getOrAdd:"));
+                for (int run = 0; run <= RUNS; run++) {
+                    BSTInterface<Reference> tree = newReferenceTree(i, counting);
+                    long start = System.nanoTime();
+                    indexWords(tree, words, way == 1);
+                    printTime(run, start);
+                }
+            }
+        }
+    }
+
+    // Builds balanced trees of 1,000,000 sorted Integers with buildFromSorted, and by adding the middle element first
+    // and then the middles of both halves. Counts the comparator calls of both ways for the linked tree and the
+    // child index MatrixBST, then times both ways.
+    public static void benchmarkBulkLoad() {
+        int n = 1000000;
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++)
+            sorted[i] = i;
+        Integer[] middleFirst = new Integer[n];
+        middleOrder(sorted, 0, n - 1, middleFirst, 0);
+        final long[] calls = new long[1];
+        Comparator<Integer> counting = (a, b) -> {
+            calls[0]++;
+            return a.compareTo(b);
+        };
+
+        System.out.println("======= Building balanced trees of " + n + " sorted Integers =======");
+        for (int i = 0; i < 2; i++) {
+            String name = (i == 0) ? "BinarySearchTree" : "MatrixBST (ChildIndex)";
+            for (int way = 0; way < 2; way++) {
+                System.out.println(name + ((way == 0) ? ", add middle first:" : ", buildFromSorted:"));
+                for (int run = 0; run <= RUNS; run++) {
+                    calls[0] = 0;
+                    long start = System.nanoTime();
+                    BSTInterface<Integer> tree;
+                    if (way == 1 && i == 0)
+                        tree = BinarySearchTree.buildFromSorted(Arrays.asList(sorted).iterator(), n, counting);
+                    else if (way == 1)
+                        tree = MatrixBST.buildFromSorted(Arrays.asList(sorted).iterator(), n, counting, MatrixBST.Storage.ChildIndex);
+                    else {
+                        tree = (i == 0) ? new BinarySearchTree<Integer>(counting)
+                                        : new MatrixBST<Integer>(n, counting, MatrixBST.Storage.ChildIndex);
+                        for (Integer value: middleFirst)
+                            tree.add(value);
+                    }
+                    printTime(run, start);
+                    if (run == RUNS)
+                        System.out.println("Comparator calls: " + calls[0] + ", balanced: " + tree.isBalanced());
+                }
+            }
+        }
+    }
+
+    // Stores sorted[low..high] into order starting at position, the middle element first and then each half the
+    // same way, and returns the position after the last element stored. Adding the elements in this order builds
+    // a balanced tree.
+    private static int middleOrder(Integer[] sorted, int low, int high, Integer[] order, int position) {
+        if (low > high)
+            return position;
+        int mid = (low + high) / 2;
+        order[position++] = sorted[mid];
+        position = middleOrder(sorted, low, mid - 1, order, position);
+        return middleOrder(sorted, mid + 1, high, order, position);
+    }
+
+    // Looks up Integers in a ConcurrentBST of 1,000,000 Integers from 1, 2, 4, ... reader threads, up to twice the
+    // number of processors, each reader doing 1,000,000 gets. Runs the readers alone, and then alongside a writer
+    // thread that keeps removing and adding elements. More readers should finish in about the same time while
+    // there are processors for them.
+    public static void benchmarkConcurrentGet() {
+        int n = 1000000;
+        int processors = Runtime.getRuntime().availableProcessors();
+        ConcurrentBST<Integer> tree = new ConcurrentBST<Integer>();
+        for (Integer value: shuffledIntegers(n, 42))
+            tree.add(value);
+        tree.rebalance();
+        Integer[] targets = shuffledIntegers(n, 7);
+
+        System.out.println("======= ConcurrentBST get of " + n + " Integers per reader, " + processors + " processors =======");
+        for (int writer = 0; writer < 2; writer++) {
+            for (int readers = 1; readers <= Math.max(4, 2 * processors); readers *= 2) {
+                System.out.println(readers + ((writer == 0) ? " readers:" : " readers and one writer:"));
+                for (int run = 0; run <= RUNS; run++)
+                    timeConcurrentGets(tree, targets, readers, writer == 1, run);
+            }
+        }
+    }
+
+    // Starts readers threads that each get every target, starting at different positions, and prints the time
+    // until they are all done. If withWriter is true, another thread removes and adds elements until then.
+    private static void timeConcurrentGets(ConcurrentBST<Integer> tree, Integer[] targets, int readers,
+                                           boolean withWriter, int run) {
+        final boolean[] done = new boolean[1];
+        Thread writer = new Thread(() -> {
+            Random random = new Random(run);
+            while (!isDone(done)) {
+                Integer value = random.nextInt(targets.length);
+                tree.remove(value);
+                tree.add(value);
+            }
+        });
+        Thread[] threads = new Thread[readers];
+        for (int i = 0; i < readers; i++) {
+            int offset = i * (targets.length / readers);
+            threads[i] = new Thread(() -> {
+                int found = 0;
+                for (int j = 0; j < targets.length; j++) {
+                    if (tree.get(targets[(offset + j) % targets.length]) != null)
+                        found++;
+                }
+                if (!withWriter && found != targets.length)
+                    System.out.println("Not every target was found!");
+            });
+        }
+
+        long start = System.nanoTime();
+        if (withWriter)
+            writer.start();
+        for (Thread thread: threads)
+            thread.start();
+        try {
+            for (Thread thread: threads)
+                thread.join();
+            synchronized (done) {
+                done[0] = true;
+            }
+            if (withWriter)
+                writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        printTime(run, start);
+    }
+
+    // Returns true once the readers of timeConcurrentGets are done
+    private static boolean isDone(boolean[] done) {
+        synchronized (done) {
+            return done[0];
+        }
+    }
+
+    // Adds 100,000 Integers in random order to a PersistentBST and an AVLTree while taking a snapshot iterator after
+    // every 100 adds and reading its first element. The AVLTree copies the whole tree into a queue for every snapshot
+    // iterator, while the PersistentBST only keeps the current version.
+    public static void benchmarkSnapshot() {
+        int n = 100000;
+        Integer[] values = shuffledIntegers(n, 42);
+        System.out.println("======= " + n + " adds with a snapshot iterator every 100 adds =======");
+        for (int i = 0; i < 2; i++) {
+            System.out.println((i == 0) ? "AVLTree:" : "PersistentBST:");
+            for (int run = 0; run <= RUNS; run++) {
+                BSTInterface<Integer> tree = (i == 0) ? new AVLTree<Integer>() : new PersistentBST<Integer>();
+                long start = System.nanoTime();
+                long sum = 0;
+                for (int j = 0; j < n; j++) {
+                    tree.add(values[j]);
+                    if (j % 100 == 0)
+                        sum += tree.getSnapshotIterator(BSTInterface.Traversal.Inorder).next();
+                }
+                printTime(run, start);
+                if (sum < 0)
+                    System.out.println("Impossible sum!");
+            }
+        }
+    }
+
+    // Indexes the distinct words of the Bible in random order, then replays 1,000,000 searches for them picked with a
+    // Zipf distribution, the words used most in the text being searched most often. Uses exponents 1.0 and 1.5, the
+    // second concentrating the searches on fewer words. Compares the splay tree with the rebalanced linked tree, the
+    // AVL and red-black trees and the frozen EytzingerBST, counting the comparator calls of the first replay and
+    // timing the replays.
+    public static void benchmarkZipfReplay() {
+        String[] text = bibleWords();
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (String word: text)
+            counts.merge(word, 1, Integer::sum);
+        String[] vocabulary = counts.keySet().toArray(new String[counts.size()]);
+        Arrays.sort(vocabulary, (a, b) -> counts.get(b) - counts.get(a));  // Most used first
+        List<String> insertOrder = new ArrayList<String>(Arrays.asList(vocabulary));
+        Collections.shuffle(insertOrder, new Random(42));
+
+        final long[] calls = new long[1];
+        Comparator<Reference> counting = (a, b) -> {
+            calls[0]++;
+            return a.compareTo(b);
+        };
+        String[] names = {"BinarySearchTree (rebalanced)", "AVLTree", "RedBlackTree", "EytzingerBST", "SplayTree"};
+        for (double exponent: new double[] {1.0, 1.5}) {
+            String[] queryWords = zipfWords(1000000, vocabulary, exponent, 3);
+            Reference[] queries = new Reference[queryWords.length];
+            for (int i = 0; i < queries.length; i++)
+                queries[i] = new Reference(queryWords[i]);
+
+            System.out.println("======= Replaying " + queries.length + " Zipf distributed searches (exponent " + exponent
+                               + ") for " + vocabulary.length + " words =======");
+            for (int i = 0; i < names.length; i++) {
+                BSTInterface<Reference> tree = (i == 1) ? new AVLTree<Reference>(counting)
+                                             : (i == 2) ? new RedBlackTree<Reference>(counting)
+                                             : (i == 4) ? new SplayTree<Reference>(counting) : new BinarySearchTree<Reference>(counting);
+                for (String word: insertOrder)
+                    tree.add(new Reference(word));
+                if (i == 0 || i == 3)
+                    tree.rebalance();
+                if (i == 3)
+                    tree = new EytzingerBST<Reference>(tree.getIterator(BSTInterface.Traversal.Inorder), tree.size(), counting);
+
+                System.out.println(names[i] + ":");
+                for (int run = 0; run <= RUNS; run++) {
+                    calls[0] = 0;
+                    long start = System.nanoTime();
+                    for (Reference query: queries)
+                        tree.get(query);
+                    printTime(run, start);
+                    if (run == 0)
+                        System.out.printf("Comparator calls per search: %.1f%n", (double) calls[0] / queries.length);
+                }
+            }
+        }
+    }
+
+    // Looks up 1,000,000 random words in trees of 10,000, 100,000 and 500,000 random words built in random order.
+    // Compares the linked tree and the child index MatrixBST, which visit one element per level, with B+ trees of
+    // fanout 16 and 64, which binary search the keys of a node in one array.
+    public static void benchmarkBPlusGet() {
+        for (int n: new int[] {10000, 100000, 500000}) {
+            String[] words = randomWords(n, 42);
+            Random random = new Random(7);
+            String[] targets = new String[1000000];
+            for (int i = 0; i < targets.length; i++)
+                targets[i] = words[random.nextInt(n)];
+            BinarySearchTree<String> linked = new BinarySearchTree<String>();
+            MatrixBST<String> matrix = new MatrixBST<String>(n, MatrixBST.Storage.ChildIndex);
+            BPlusTree<String> narrow = new BPlusTree<String>(16);
+            BPlusTree<String> wide = new BPlusTree<String>(64);
+            for (String word: words) {
+                linked.add(word);
+                matrix.add(word);
+                narrow.add(word);
+                wide.add(word);
+            }
+
+            System.out.println("======= get of " + targets.length + " words in trees of " + n + " words =======");
+            timeGets("BinarySearchTree", linked, targets);
+            timeGets("MatrixBST (ChildIndex)", matrix, targets);
+            timeGets("BPlusTree (fanout 16)", narrow, targets);
+            timeGets("BPlusTree (fanout 64)", wide, targets);
+        }
+    }
+
+    // Aggregates trees of 1,000,000 References with sequential and parallel streams: counts the verses listed for all
+    // words and finds the longest word. Compares the linked tree and the child index MatrixBST, both built balanced
+    // with buildFromSorted, whose Spliterators split by subtree. Parallel streams can only be faster when there is
+    // more than one processor.
+    public static void benchmarkParallelStream() {
+        int n = 1000000;
+        String[] words = randomWords(n, 42);
+        Arrays.sort(words);
+        String[] verses = {"Gen 1:1", "Ex 20:3", "Ps 23:1", "Isa 40:31", "John 3:16", "Rom 8:28"};
+        Random random = new Random(7);
+        Reference[] references = new Reference[n];
+        for (int i = 0; i < n; i++) {
+            references[i] = new Reference(words[i]);
+            for (int v = random.nextInt(3); v >= 0; v--)
+                references[i].addVerse(verses[random.nextInt(verses.length)]);
+        }
+
+        System.out.println("======= Aggregating " + n + " References with streams on "
+                           + Runtime.getRuntime().availableProcessors() + " processors =======");
+        for (int i = 0; i < 2; i++) {
+            BSTInterface<Reference> tree = (i == 0) ? BinarySearchTree.buildFromSorted(references)
+                                                    : MatrixBST.buildFromSorted(references, MatrixBST.Storage.ChildIndex);
+            String name = (i == 0) ? "BinarySearchTree" : "MatrixBST (ChildIndex)";
+            for (int parallel = 0; parallel < 2; parallel++) {
+                System.out.println(name + ((parallel == 0) ? ", sequential:" : ", parallel:"));
+                long totalVerses = 0;
+                String longest = null;
+                for (int run = 0; run <= RUNS; run++) {
+                    long start = System.nanoTime();
+                    totalVerses = ((parallel == 0) ? tree.stream() : tree.stream().parallel())
+                                  .mapToLong(Reference::getVerseCount).sum();
+                    longest = ((parallel == 0) ? tree.stream() : tree.stream().parallel())
+                              .map(Reference::getWordIs).max(Comparator.comparingInt(String::length)).get();
+                    printTime(run, start);
+                }
+                System.out.println("Verses: " + totalVerses + ", longest word: " + longest);
+            }
+        }
+    }
+
+    // Walks trees of 1,000,000 Integers built in random order from the smallest element to the largest. Compares the
+    // inorder iterator of the linked tree, which keeps a stack, its snapshot iterator, which copies the tree into a
+    // queue first, and the ThreadedBST iterator, which follows the threads. Prints the bytes each walk allocates.
+    // Then browses 1,000,000 steps, looking up the next element from the previous one with higher on the linked tree
+    // and with successor on the threaded tree.
+    public static void benchmarkThreadedScan() {
+        int n = 1000000;
+        Integer[] values = shuffledIntegers(n, 42);
+        BinarySearchTree<Integer> linked = new BinarySearchTree<Integer>();
+        ThreadedBST<Integer> threaded = new ThreadedBST<Integer>();
+        for (Integer value: values) {
+            linked.add(value);
+            threaded.add(value);
+        }
+
+        System.out.println("======= Inorder walks of trees of " + n + " Integers =======");
+        timeScan("BinarySearchTree, getIterator", () -> linked.getIterator(BSTInterface.Traversal.Inorder));
+        timeScan("BinarySearchTree, getSnapshotIterator", () -> linked.getSnapshotIterator(BSTInterface.Traversal.Inorder));
+        timeScan("ThreadedBST, getIterator", () -> threaded.getIterator(BSTInterface.Traversal.Inorder));
+
+        System.out.println("======= Browsing " + n + " steps from the smallest Integer =======");
+        for (int i = 0; i < 2; i++) {
+            System.out.println((i == 0) ? "BinarySearchTree, higher:" : "ThreadedBST, successor:");
+            for (int run = 0; run <= RUNS; run++) {
+                long start = System.nanoTime();
+                int steps = 0;
+                for (Integer value = 0; value != null; steps++)
+                    value = (i == 0) ? linked.higher(value) : threaded.successor(value);
+                printTime(run, start);
+                if (steps != n)
+                    System.out.println("Browsing took " + steps + " steps instead of " + n + "!");
+            }
+        }
+    }
+
+    // Times walks of the iterators made by iterators, and prints the bytes allocated by the last walk
+    private static void timeScan(String name, java.util.function.Supplier<Iterator<Integer>> iterators) {
+        System.out.println(name + ":");
+        long bytes = 0;
+        for (int run = 0; run <= RUNS; run++) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            long sum = 0;
+            for (Iterator<Integer> iter = iterators.get(); iter.hasNext(); )
+                sum += iter.next();
+            printTime(run, start);
+            bytes = allocatedBytes() - allocated;
+            if (sum < 0)
+                System.out.println("Sum overflowed!");
+        }
+        System.out.println("Bytes allocated per walk: " + bytes);
+    }
+
+    // Returns the number of bytes the current thread has allocated, or 0 if the JVM cannot measure it
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return 0;
+    }
+
+    // Builds trees of 1,000,000 keys in random order and measures the heap they take per key, then looks up 1,000,000
+    // random keys in each. Compares the linked tree and the child index MatrixBST of Integers with IntBST, and the
+    // linked tree of Longs with LongBST. The boxed trees store a new Integer or Long for every key.
+    public static void benchmarkPrimitiveGet() {
+        int n = 1000000;
+        Integer[] shuffled = shuffledIntegers(n, 42);
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = shuffled[i];
+        Integer[] targets = shuffledIntegers(n, 7);
+        int[] intTargets = new int[n];
+        Long[] longTargets = new Long[n];
+        long[] primitiveLongTargets = new long[n];
+        for (int i = 0; i < n; i++) {
+            intTargets[i] = targets[i];
+            longTargets[i] = (long) targets[i] << 32;
+            primitiveLongTargets[i] = (long) targets[i] << 32;
+        }
+
+        System.out.println("======= Trees of " + n + " keys: heap per key and get of " + n + " keys =======");
+        for (int kind = 0; kind < 5; kind++) {
+            long before = usedMemory();
+            Object tree;
+            if (kind == 0) {
+                BinarySearchTree<Integer> linked = new BinarySearchTree<Integer>();
+                for (int key: keys)
+                    linked.add(key);
+                tree = linked;
+            }
+            else if (kind == 1) {
+                MatrixBST<Integer> matrix = new MatrixBST<Integer>(n, MatrixBST.Storage.ChildIndex);
+                for (int key: keys)
+                    matrix.add(key);
+                tree = matrix;
+            }
+            else if (kind == 2) {
+                IntBST ints = new IntBST(n);
+                for (int key: keys)
+                    ints.add(key);
+                tree = ints;
+            }
+            else if (kind == 3) {
+                BinarySearchTree<Long> linked = new BinarySearchTree<Long>();
+                for (int key: keys)
+                    linked.add((long) key << 32);
+                tree = linked;
+            }
+            else {
+                LongBST longs = new LongBST(n);
+                for (int key: keys)
+                    longs.add((long) key << 32);
+                tree = longs;
+            }
+            long bytes = usedMemory() - before;
+
+            String[] names = {"BinarySearchTree<Integer>", "MatrixBST<Integer> (ChildIndex)", "IntBST",
+                              "BinarySearchTree<Long>", "LongBST"};
+            System.out.println(names[kind] + ": " + (bytes / n) + " bytes per key");
+            if (kind == 0 || kind == 1)
+                timeGets("get", (BSTInterface<Integer>) tree, targets);
+            else if (kind == 3)
+                timeGets("get", (BSTInterface<Long>) tree, longTargets);
+            else {
+                System.out.println("contains:");
+                int found = 0;
+                for (int run = 0; run <= RUNS; run++) {
+                    long start = System.nanoTime();
+                    if (kind == 2) {
+                        for (int target: intTargets) {
+                            if (((IntBST) tree).contains(target))
+                                found++;
+                        }
+                    }
+                    else {
+                        for (long target: primitiveLongTargets) {
+                            if (((LongBST) tree).contains(target))
+                                found++;
+                        }
+                    }
+                    printTime(run, start);
+                }
+                if (found != n * (RUNS + 1))
+                    System.out.println("Not every target was found!");
+            }
+        }
+    }
+
+    // Builds trees of 100,000 Integers in random order, then churns them the way re-indexing does: 1,000,000 times
+    // removes an element and adds it back. Compares the linked tree, which allocates a BSTNode for every add, with
+    // ArenaBST, which reuses the removed index. Prints the bytes each run allocates; run with -Xlog:gc to see the
+    // young collections this causes.
+    public static void benchmarkArenaChurn() {
+        int n = 100000;
+        int ops = 1000000;
+        Integer[] values = shuffledIntegers(n, 42);
+        Integer[] churn = shuffledIntegers(n, 7);
+
+        System.out.println("======= Removing and re-adding " + ops + " Integers in trees of " + n + " =======");
+        for (int kind = 0; kind < 2; kind++) {
+            BSTInterface<Integer> tree;
+            if (kind == 0)
+                tree = new BinarySearchTree<Integer>();
+            else
+                tree = new ArenaBST<Integer>(n);
+            for (Integer value: values)
+                tree.add(value);
+
+            System.out.println((kind == 0) ? "BinarySearchTree:" : "ArenaBST:");
+            long bytes = 0;
+            for (int run = 0; run <= RUNS; run++) {
+                long allocated = allocatedBytes();
+                long start = System.nanoTime();
+                for (int i = 0; i < ops; i++) {
+                    Integer value = churn[i % n];
+                    if (!tree.remove(value))
+                        System.out.println("Could not remove " + value + "!");
+                    tree.add(value);
+                }
+                printTime(run, start);
+                bytes = allocatedBytes() - allocated;
+            }
+            System.out.println("Bytes allocated per run: " + bytes);
+            if (tree.size() != n)
+                System.out.println("Tree has " + tree.size() + " elements instead of " + n + "!");
+        }
+    }
+
+    // Times the query phase of SearchBibleWord: 1,000,000 Zipf distributed searches for words of the Bible, each with
+    // a new Reference holding a new String, as typed by the user. A String caches its hash code, so only the warm-up
+    // of the first HashFrontBST pays for hashing the queries, as a user's query would. Compares the rebalanced linked
+    // tree, the AVL tree and the frozen EytzingerBST with HashFrontBSTs in front of the linked tree and the EytzingerBST.
+    public static void benchmarkHashFrontGet() {
+        String[] text = bibleWords();
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (String word: text)
+            counts.merge(word, 1, Integer::sum);
+        String[] vocabulary = counts.keySet().toArray(new String[counts.size()]);
+        Arrays.sort(vocabulary, (a, b) -> counts.get(b) - counts.get(a));  // Most used first
+        List<String> insertOrder = new ArrayList<String>(Arrays.asList(vocabulary));
+        Collections.shuffle(insertOrder, new Random(42));
+
+        BinarySearchTree<Reference> linked = new BinarySearchTree<Reference>();
+        AVLTree<Reference> avl = new AVLTree<Reference>();
+        for (String word: insertOrder) {
+            linked.add(new Reference(word));
+            avl.add(new Reference(word));
+        }
+        linked.rebalance();
+        EytzingerBST<Reference> frozen = new EytzingerBST<Reference>(linked);
+
+        String[] queryWords = zipfWords(1000000, vocabulary, 1.0, 3);
+        Reference[] queries = new Reference[queryWords.length];
+        for (int i = 0; i < queries.length; i++)
+            queries[i] = new Reference(new String(queryWords[i]));  // Not yet hashed
+
+        System.out.println("======= Replaying " + queries.length + " Zipf distributed searches for " + vocabulary.length
+                           + " words =======");
+        timeGets("BinarySearchTree (rebalanced)", linked, queries);
+        timeGets("AVLTree", avl, queries);
+        timeGets("EytzingerBST", frozen, queries);
+        timeGets("HashFrontBST over BinarySearchTree",
+                 new HashFrontBST<Reference, String>(linked, Reference::getWordIs), queries);
+        timeGets("HashFrontBST over EytzingerBST",
+                 new HashFrontBST<Reference, String>(frozen, Reference::getWordIs), queries);
+    }
+
+    // Returns the bytes of heap in use after collecting garbage
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Returns an empty tree of References ordered by comp: 0 linked, 1 child index MatrixBST, 2 AVL, 3 red-black
+    private static BSTInterface<Reference> newReferenceTree(int kind, Comparator<Reference> comp) {
+        if (kind == 0)
+            return new BinarySearchTree<Reference>(comp);
+        else if (kind == 1)
+            return new MatrixBST<Reference>(MatrixBST.DEFCAP, comp, MatrixBST.Storage.ChildIndex);
+        else if (kind == 2)
+            return new AVLTree<Reference>(comp);
+        else
+            return new RedBlackTree<Reference>(comp);
+    }
+
+    // Adds a Reference for every word to tree unless one is already there.
+    // Uses getOrAdd with one reused probe if getOrAdd is true, otherwise get and then add on a miss with new References.
+    private static void indexWords(BSTInterface<Reference> tree, String[] words, boolean getOrAdd) {
+        Reference probe = new Reference("");
+        for (String word: words) {
+            if (getOrAdd) {
+                probe.setWord(word);
+                tree.getOrAdd(probe, () -> new Reference(word));
+            }
+            else if (tree.get(new Reference(word)) == null)
+                tree.add(new Reference(word));
+        }
+    }
+
+    // Returns every word of the Bible file in order, without punctuation and in lowercase like SearchBibleWord.
+    // If the file cannot be read, returns a Zipf distributed stream of random words of about the same size instead.
+    public static String[] bibleWords() {
+        ArrayList<String> words = new ArrayList<String>();
+        try (Scanner bible = new Scanner(new FileReader(bibleFile))) {
+            while (bible.hasNextLine()) {
+                for (String word: bible.nextLine().split("\\s+")) {
+                    word = word.replaceAll("[^a-zA-Z']", "").toLowerCase();
+                    if (!word.isEmpty())
+                        words.add(word);
+                }
+            }
+        }
+        catch (IOException e) {
+            System.out.println(bibleFile + " could not be read, using random words instead.");
+            return zipfWords(800000, randomWords(13000, 1), 1.0, 2);
+        }
+        return words.toArray(new String[words.size()]);
+    }
+
+    // Returns count words picked from vocabulary so that the word at rank k is picked with probability proportional to 1 / k^exponent
+    public static String[] zipfWords(int count, String[] vocabulary, double exponent, long seed) {
+        double[] cumulative = new double[vocabulary.length];
+        double total = 0;
+        for (int k = 0; k < vocabulary.length; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = total;
+        }
+        Random random = new Random(seed);
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            words[i] = vocabulary[(rank >= 0) ? rank : Math.min(-rank - 1, vocabulary.length - 1)];
+        }
+        return words;
+    }
+
+    // Times calls of get on tree for every target
+    private static <T> void timeGets(String name, BSTInterface<T> tree, T[] targets) {
+        System.out.println(name + ":");
+        int found = 0;
+        for (int run = 0; run <= RUNS; run++) {
+            long start = System.nanoTime();
+            for (T target: targets) {
+                if (tree.get(target) != null)
+                    found++;
+            }
+            printTime(run, start);
+        }
+        if (found != targets.length * (RUNS + 1))
+            System.out.println("Not every target was found!");
+    }
+
+    // Returns the Integers 0 to n - 1 in random order
+    public static Integer[] shuffledIntegers(int n, long seed) {
+        Integer[] values = new Integer[n];
+        for (int i = 0; i < n; i++)
+            values[i] = i;
+        Collections.shuffle(Arrays.asList(values), new Random(seed));
+        return values;
+    }
+
+    // Returns n different random lowercase words in random order
+    public static String[] randomWords(int n, long seed) {
+        Random random = new Random(seed);
+        Set<String> words = new HashSet<String>();
+        while (words.size() < n) {
+            char[] letters = new char[3 + random.nextInt(8)];
+            for (int i = 0; i < letters.length; i++)
+                letters[i] = (char) ('a' + random.nextInt(26));
+            words.add(new String(letters));
+        }
+        String[] shuffled = words.toArray(new String[n]);
+        Collections.shuffle(Arrays.asList(shuffled), random);
+        return shuffled;
+    }
+
+    // Prints the time elapsed since start, labelling the warm-up run
+    private static void printTime(int run, long start) {
+        long millis = (System.nanoTime() - start) / 1000000;
+        if (run == 0)
+            System.out.println("Warm-up: " + millis + " ms");
+        else
+            System.out.println("Run " + run + ": " + millis + " ms");
+    }
+}
@@ -12,6 +12,11 @@
 //----------------------------------------------------------------------------
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface BSTInterface<T> extends CollectionInterface<T>, Iterable<T>
 {
@@ -25,12 +30,128 @@ public interface BSTInterface<T> extends CollectionInterface<T>, Iterable<T>
   T max();
   // If this BST is empty, returns null;
   // otherwise returns the largest element of the tree.
+
+  public default T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of the tree such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it; the
+  // supplied element must compare equal to key. The supplier is not called
+  // when key is found, so key may be a reused probe.
+  {
+    T element = get(key);
+    if (element == null)
+    {
+      element = supplier.get();
+      add(element);
+    }
+    return element;
+  }
+
+  T ceiling(T target);
+  // Returns the smallest element e of the tree such that
+  // comp.compare(e, target) >= 0; if no such element exists, returns null.
+
+  T floor(T target);
+  // Returns the largest element e of the tree such that
+  // comp.compare(e, target) <= 0; if no such element exists, returns null.
+
+  T higher(T target);
+  // Returns the smallest element e of the tree such that
+  // comp.compare(e, target) > 0; if no such element exists, returns null.
+
+  T lower(T target);
+  // Returns the largest element e of the tree such that
+  // comp.compare(e, target) < 0; if no such element exists, returns null.
+
+  public Iterator<T> rangeIterator(T low, T high);
+  // Creates and returns an Iterator providing an inorder traversal of the
+  // elements e of the current tree such that comp.compare(low, e) <= 0 and
+  // comp.compare(e, high) <= 0. The tree must not be changed while the
+  // iterator is in use.
+
+  public default Iterator<T> headIterator(T high)
+  // Creates and returns an Iterator providing an inorder traversal of the
+  // elements e of the current tree such that comp.compare(e, high) <= 0.
+  {
+    if (isEmpty())
+      return getIterator(Traversal.Inorder);
+    return rangeIterator(min(), high);
+  }
+
+  public default Iterator<T> tailIterator(T low)
+  // Creates and returns an Iterator providing an inorder traversal of the
+  // elements e of the current tree such that comp.compare(low, e) <= 0.
+  {
+    if (isEmpty())
+      return getIterator(Traversal.Inorder);
+    return rangeIterator(low, max());
+  }
   
   public Iterator<T> getIterator(Traversal orderType);
+  // Creates and returns an Iterator providing a traversal of the current
+  // tree in the order indicated by the argument. The iterator may walk the
+  // tree as it goes, so the tree must not be changed while it is in use.
+
+  public default Iterator<T> getSnapshotIterator(Traversal orderType)
   // Creates and returns an Iterator providing a traversal of a "snapshot" 
-  // of the current tree in the order indicated by the argument.
+  // of the current tree in the order indicated by the argument. The tree
+  // may be changed while the snapshot is being iterated.
+  {
+    final LinkedQueue<T> infoQueue = new LinkedQueue<T>();
+    Iterator<T> iter = getIterator(orderType);
+    while (iter.hasNext())
+      infoQueue.enqueue(iter.next());
+
+    return new Iterator<T>()
+    {
+      public boolean hasNext()
+      // Returns true if the iteration has more elements; otherwise returns false.
+      {
+        return !infoQueue.isEmpty();
+      }
+
+      public T next()
+      // Returns the next element in the iteration.
+      // Throws NoSuchElementException - if the iteration has no more elements
+      {
+        if (!hasNext())
+          throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                     " in snapshot iterator.\n");
+        return infoQueue.dequeue();
+      }
+
+      public void remove()
+      // Throws UnsupportedOperationException.
+      // Not supported. Removal from snapshot iteration is meaningless.
+      {
+        throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                              + "snapshot iterator.\n");
+      }
+    };
+  }
+
+  public default Spliterator<T> spliterator()
+  // Creates and returns a Spliterator over the elements of the current tree
+  // in inorder that knows the size of the tree. It walks iterator(), so it
+  // splits off batches of elements rather than subtrees; trees that can
+  // split by subtree override it. The tree must not be changed while it is
+  // in use.
+  {
+    return Spliterators.spliterator(iterator(), size(),
+                                    Spliterator.ORDERED | Spliterator.NONNULL);
+  }
+
+  public default Stream<T> stream()
+  // Returns a sequential Stream over the elements of the current tree in
+  // inorder; call parallel() on it to aggregate the elements on several
+  // threads.
+  {
+    return StreamSupport.stream(spliterator(), false);
+  }
 
   public void printTree();
 
   public boolean isBalanced();
+
+  public void rebalance();
+  // Restructures this BST so that it is balanced, keeping all of its elements.
 }
\ No newline at end of file
@@ -11,10 +11,11 @@ public class BSTNode<T>
   private T info;                // The node info
   private BSTNode<T> left;       // A link to the left child node
   private BSTNode<T> right;      // A link to the right child node
+  private int size;              // Number of nodes in the subtree rooted here
 
   public BSTNode(T info)
   {
-    this.info = info; left = null;  right = null;
+    this.info = info; left = null;  right = null;  size = 1;
   }
  
   public void setInfo(T info){this.info = info;}
@@ -26,4 +27,7 @@ public class BSTNode<T>
   public BSTNode<T> getLeft(){return left;}
   public BSTNode<T> getRight(){return right;}
 
+  public void setSize(int size){this.size = size;}
+  public int getSize(){return size;}
+
 }
\ No newline at end of file
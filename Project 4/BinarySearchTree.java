@@ -4,18 +4,23 @@
 // Defines all constructs for a reference-based BST.
 // Supports three traversal orders Preorder, Postorder & Inorder ("natural")
 //
+// Every node stores the size of its subtree, so size() takes constant time
+// and rank(), select() and countRange() take time proportional to the height.
+//
 // printTree() modified by Royer from answer by Anurag Agarwal
 // https://stackoverflow.com/questions/4965335/how-to-print-binary-tree-diagram-in-java  
 //---------------------------------------------------------------------------
 
-import java.util.*;   // Iterator, Comparator    
+import java.util.*;   // Iterator, Comparator, Spliterator, Arrays
+import java.util.function.Supplier;
+import java.util.function.Consumer;
 
 public class BinarySearchTree<T> implements BSTInterface<T>
 {
   protected BSTNode<T> root;      // reference to the root of this BST
   protected Comparator<T> comp;   // used for all comparisons
 
-  protected boolean found;   // used by remove
+  protected boolean found;   // used by remove in subclasses
 
   public BinarySearchTree() 
   // Precondition: T implements Comparable
@@ -39,6 +44,53 @@ public class BinarySearchTree<T> implements BSTInterface<T>
     this.comp = comp;
   }
 
+  public static <T> BinarySearchTree<T> buildFromSorted(T[] elements)
+  // Precondition: T implements Comparable and elements is sorted in
+  // natural order.
+  // Creates and returns a balanced BST holding elements - uses the natural
+  // order of elements.
+  {
+    return buildFromSorted(Arrays.asList(elements).iterator(), elements.length);
+  }
+
+  public static <T> BinarySearchTree<T> buildFromSorted(Iterator<T> elements, int n)
+  // Precondition: T implements Comparable and elements yields at least n
+  // elements in natural order.
+  // Creates and returns a balanced BST holding the next n elements - uses the
+  // natural order of elements.
+  {
+    BinarySearchTree<T> tree = new BinarySearchTree<T>();
+    tree.root = recBuild(elements, n);
+    return tree;
+  }
+
+  public static <T> BinarySearchTree<T> buildFromSorted(Iterator<T> elements, int n,
+                                                        Comparator<T> comp)
+  // Precondition: elements yields at least n elements in the order of comp.
+  // Creates and returns a balanced BST holding the next n elements - uses
+  // Comparator comp for order of elements.
+  {
+    BinarySearchTree<T> tree = new BinarySearchTree<T>(comp);
+    tree.root = recBuild(elements, n);
+    return tree;
+  }
+
+  private static <T> BSTNode<T> recBuild(Iterator<T> elements, int n)
+  // Links the next n elements into a balanced tree and returns its root. The
+  // left subtree is built first, so the nodes take the elements in inorder;
+  // no comparisons are made and each element is read once, taking O(n) time.
+  {
+    if (n == 0)
+      return null;
+    int leftSize = (n - 1) / 2;
+    BSTNode<T> left = recBuild(elements, leftSize);
+    BSTNode<T> node = new BSTNode<T>(elements.next());
+    node.setLeft(left);
+    node.setRight(recBuild(elements, n - 1 - leftSize));
+    node.setSize(n);
+    return node;
+  }
+
   public boolean isFull()
   // Returns false; this link-based BST is never full.
   {
@@ -81,19 +133,25 @@ public class BinarySearchTree<T> implements BSTInterface<T>
     }
   }
 
-  private int recSize(BSTNode<T> node)
+  protected int subtreeSize(BSTNode<T> node)
   // Returns the number of elements in subtree rooted at node.
   {
     if (node == null)    
       return 0;
     else
-      return 1 + recSize(node.getLeft()) + recSize(node.getRight());
+      return node.getSize();
+  }
+
+  protected void updateSize(BSTNode<T> node)
+  // Recomputes the subtree size stored in node from the sizes of its children.
+  {
+    node.setSize(1 + subtreeSize(node.getLeft()) + subtreeSize(node.getRight()));
   }
 
   public int size()
   // Returns the number of elements in this BST.
   {
-    return recSize(root);
+    return subtreeSize(root);
   }
 
   public int size2()
@@ -119,236 +177,619 @@ public class BinarySearchTree<T> implements BSTInterface<T>
     return count;
   }
 
-  private boolean recContains(T target, BSTNode<T> node)
-  // Returns true if the subtree rooted at node contains info i such that 
-  // comp.compare(target, i) == 0; otherwise, returns false.
- {
-    if (node == null)
-      return false;       // target is not found
-    else if (comp.compare(target, node.getInfo()) < 0)
-      return recContains(target, node.getLeft());   // Search left subtree
-    else if (comp.compare(target, node.getInfo()) > 0)
-      return recContains(target, node.getRight());  // Search right subtree
-    else
-      return true;        // target is found
+  public T ceiling(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) >= 0; if no such element exists, returns null.
+  {
+    T result = null;
+    BSTNode<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.getInfo()) <= 0)
+      {
+        result = node.getInfo();       // Candidate, look for a smaller one
+        node = node.getLeft();
+      }
+      else
+        node = node.getRight();
+    }
+    return result;
   }
 
-  public boolean contains (T target)
-  // Returns true if this BST contains a node with info i such that 
-  // comp.compare(target, i) == 0; otherwise, returns false.
+  public T floor(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) <= 0; if no such element exists, returns null.
   {
-    return recContains(target, root);
+    T result = null;
+    BSTNode<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.getInfo()) >= 0)
+      {
+        result = node.getInfo();       // Candidate, look for a larger one
+        node = node.getRight();
+      }
+      else
+        node = node.getLeft();
+    }
+    return result;
   }
-  
-  private T recGet(T target, BSTNode<T> node)
-  // Returns info i from the subtree rooted at node such that 
-  // comp.compare(target, i) == 0; if no such info exists, returns null.
+
+  public T higher(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) > 0; if no such element exists, returns null.
   {
-    if (node == null)
-      return null;             // target is not found
-    else if (comp.compare(target, node.getInfo()) < 0)
-      return recGet(target, node.getLeft());         // get from left subtree
-    else
-    if (comp.compare(target, node.getInfo()) > 0)
-      return recGet(target, node.getRight());        // get from right subtree
-    else
-      return node.getInfo();  // target is found
+    T result = null;
+    BSTNode<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.getInfo()) < 0)
+      {
+        result = node.getInfo();       // Candidate, look for a smaller one
+        node = node.getLeft();
+      }
+      else
+        node = node.getRight();
+    }
+    return result;
   }
 
-  public T get(T target)
-  // Returns info i from node of this BST where comp.compare(target, i) == 0;
-  // if no such node exists, returns null.
+  public T lower(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) < 0; if no such element exists, returns null.
   {
-    return recGet(target, root);
+    T result = null;
+    BSTNode<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.getInfo()) > 0)
+      {
+        result = node.getInfo();       // Candidate, look for a larger one
+        node = node.getRight();
+      }
+      else
+        node = node.getLeft();
+    }
+    return result;
   }
 
-  private BSTNode<T> recAdd(T element, BSTNode<T> node)
-  // Adds element to tree rooted at node; tree retains its BST property.
+  public boolean contains (T target)
+  // Returns true if this BST contains a node with info i such that 
+  // comp.compare(target, i) == 0; otherwise, returns false.
   {
-    if (node == null)
-      // Addition place found
-      node = new BSTNode<T>(element);
-    else if (comp.compare(element, node.getInfo()) <= 0)
-      node.setLeft(recAdd(element, node.getLeft()));    // Add in left subtree
-    else
-      node.setRight(recAdd(element, node.getRight()));   // Add in right subtree
-    return node;
+    return get(target) != null;
   }
 
-  public boolean add (T element)
-  // Adds element to this BST. The tree retains its BST property.
+  public T get(T target)
+  // Returns info i from node of this BST where comp.compare(target, i) == 0;
+  // if no such node exists, returns null.
   {
-    root = recAdd(element, root);
-    return true;
+    BSTNode<T> node = root;
+    while (node != null)
+    {
+      int result = comp.compare(target, node.getInfo());
+      if (result < 0)
+        node = node.getLeft();         // Search left subtree
+      else if (result > 0)
+        node = node.getRight();        // Search right subtree
+      else
+        return node.getInfo();         // target is found
+    }
+    return null;                       // target is not found
   }
 
-/*
   public boolean add (T element)
   // Adds element to this BST. The tree retains its BST property.
   {
     BSTNode<T> newNode = new BSTNode<T>(element);
-    BSTNode<T> prev = null, curr = null;
-    
     if (root == null)
       root = newNode;
     else
     {
-      curr = root;
+      BSTNode<T> prev = null, curr = root;
+      boolean goLeft = false;
       while (curr != null)
       {
-        if (comp.compare(element, curr.getInfo()) <= 0)
-        {
-          prev = curr;
+        curr.setSize(curr.getSize() + 1);   // Every node on the way gains newNode
+        prev = curr;
+        goLeft = comp.compare(element, curr.getInfo()) <= 0;
+        if (goLeft)
           curr = curr.getLeft();
-        }
         else
-        {
-          prev = curr;
           curr = curr.getRight();
-        }
       }
-      if (comp.compare(element, prev.getInfo()) <= 0)
+      if (goLeft)
         prev.setLeft(newNode);
       else
-        prev.setLeft(newNode);
+        prev.setRight(newNode);
     }
     return true;
   }
-*/
 
-  private T getPredecessor(BSTNode<T> subtree)
-  // Returns the information held in the rightmost node of subtree
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this BST such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it.
+  // The search records its turns instead of changing sizes, so a hit writes
+  // nothing and a miss retraces the path without comparing again. Subclasses
+  // take part in the retrace through createNode, retraced and added.
+  {
+    BSTNode<T> parent = null, node = root;
+    long turns = 0;
+    int level = 0, result = 0;
+    while (node != null)
+    {
+      result = comp.compare(key, node.getInfo());
+      if (result == 0)
+        return node.getInfo();
+      parent = node;
+      if (result < 0)
+        node = node.getLeft();
+      else
+      {
+        if (level < Long.SIZE)
+          turns |= 1L << level;
+        node = node.getRight();
+      }
+      level++;
+    }
+
+    T element = supplier.get();
+    BSTNode<T> newNode = createNode(element);
+    node = root;
+    for (int i = 0; i < level; i++)
+    {
+      node.setSize(node.getSize() + 1);   // Every node on the way gains newNode
+      retraced(node);
+      node = turnedRight(key, node, turns, i) ? node.getRight() : node.getLeft();
+    }
+    if (parent == null)
+      root = newNode;
+    else if (result < 0)
+      parent.setLeft(newNode);
+    else
+      parent.setRight(newNode);
+    added(newNode);
+    return element;
+  }
+
+  protected BSTNode<T> createNode(T element)
+  // Returns a new node holding element for getOrAdd to add.
+  {
+    return new BSTNode<T>(element);
+  }
+
+  protected void retraced(BSTNode<T> node)
+  // Called by getOrAdd for each node on the path to the new node, from the
+  // root down. Does nothing here.
+  {
+  }
+
+  protected void added(BSTNode<T> node)
+  // Called by getOrAdd after node has been linked into the tree. Does nothing
+  // here.
   {
-    BSTNode<T> temp = subtree;
-    while (temp.getRight() != null)
-      temp = temp.getRight();
-    return temp.getInfo();
   }
 
-  private BSTNode<T> removeNode(BSTNode<T> node)
-  // Removes the information at node from the tree. 
+  protected boolean turnedRight(T key, BSTNode<T> node, long turns, int level)
+  // Returns true if the search for key went right from node, which is at the
+  // given level of the path recorded in turns. Only the first 64 turns fit in
+  // turns, the ones below are found by comparing again.
   {
-    T data;
-    if (node.getLeft() == null)
-      return node.getRight();
-    else if (node.getRight() == null) 
-      return node.getLeft();
+    if (level < Long.SIZE)
+      return ((turns >>> level) & 1) != 0;
     else
+      return comp.compare(key, node.getInfo()) > 0;
+  }
+
+  public boolean remove (T target)
+  // Removes a node with info i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such node exists, returns false.
+  {
+    // Find the node and its parent, recording the turns like getOrAdd. Sizes
+    // are changed only once the target is found, so a miss writes nothing.
+    BSTNode<T> parent = null, node = root;
+    long turns = 0;
+    int level = 0, result;
+    while (node != null && (result = comp.compare(target, node.getInfo())) != 0)
+    {
+      parent = node;
+      if (result < 0)
+        node = node.getLeft();
+      else
+      {
+        if (level < Long.SIZE)
+          turns |= 1L << level;
+        node = node.getRight();
+      }
+      level++;
+    }
+    if (node == null)
+      return false;
+    node = root;                          // Retrace the path, which ends at node again
+    for (int i = 0; i < level; i++)
+    {
+      node.setSize(node.getSize() - 1);   // Every node on the way loses one
+      node = turnedRight(target, node, turns, i) ? node.getRight() : node.getLeft();
+    }
+
+    if (node.getLeft() != null && node.getRight() != null)
     {
-      data = getPredecessor(node.getLeft());
-      node.setInfo(data);
-      node.setLeft(recRemove(data, node.getLeft()));  
-      return node;
+      // Replace info with the predecessor's and unlink the predecessor
+      node.setSize(node.getSize() - 1);
+      BSTNode<T> predParent = node, pred = node.getLeft();
+      while (pred.getRight() != null)
+      {
+        pred.setSize(pred.getSize() - 1);
+        predParent = pred;
+        pred = pred.getRight();
+      }
+      node.setInfo(pred.getInfo());
+      if (predParent == node)
+        predParent.setLeft(pred.getLeft());
+      else
+        predParent.setRight(pred.getLeft());
     }
+    else
+    {
+      // Replace node with its only child, or with null if it is a leaf
+      BSTNode<T> child = (node.getLeft() != null) ? node.getLeft() : node.getRight();
+      if (parent == null)
+        root = child;
+      else if (parent.getLeft() == node)
+        parent.setLeft(child);
+      else
+        parent.setRight(child);
+    }
+    return true;
   }
 
-  private BSTNode<T> recRemove(T target, BSTNode<T> node)
-  // Removes element with info i from tree rooted at node such that
-  // comp.compare(target, i) == 0 and returns true; 
-  // if no such node exists, returns false. 
+  public Iterator<T> getIterator(BSTInterface.Traversal orderType)
+  // Creates and returns an Iterator providing a traversal of the current tree
+  // in the order indicated by the argument. Supports Preorder, Postorder, and
+  // Inorder traversal. The iterator keeps a stack of at most height nodes and
+  // finds each element when next is called, so the tree must not be changed
+  // while it is in use; use getSnapshotIterator for that.
   {
-    if (node == null)
-      found = false;
-    else if (comp.compare(target, node.getInfo()) < 0)
-      node.setLeft(recRemove(target, node.getLeft()));
-    else if (comp.compare(target, node.getInfo()) > 0)
-      node.setRight(recRemove(target, node.getRight()));
-    else  
+    return new TreeIterator(orderType);
+  }
+
+  private class TreeIterator implements Iterator<T>
+  // Walks the tree lazily using an explicit stack of nodes.
+  // Inorder: the stack holds the nodes whose info and right subtree remain.
+  // Preorder: the stack holds the roots of the subtrees that remain.
+  // Postorder: the stack holds the path from the root to the next node.
+  {
+    private final BSTInterface.Traversal orderType;
+    private final ArrayDeque<BSTNode<T>> stack = new ArrayDeque<BSTNode<T>>();
+
+    TreeIterator(BSTInterface.Traversal orderType)
     {
-      node = removeNode(node);
-      found = true;
+      this.orderType = orderType;
+      if (orderType == BSTInterface.Traversal.Inorder)
+        pushLeftPath(root);
+      else if (orderType == BSTInterface.Traversal.Preorder)
+      {
+        if (root != null)
+          stack.push(root);
+      }
+      else if (orderType == BSTInterface.Traversal.Postorder)
+        pushPostorderPath(root);
     }
-    return node;
+
+    private void pushLeftPath(BSTNode<T> node)
+    // Pushes node and all of its left descendants.
+    {
+      while (node != null)
+      {
+        stack.push(node);
+        node = node.getLeft();
+      }
+    }
+
+    private void pushPostorderPath(BSTNode<T> node)
+    // Pushes the path from node to the first node of its subtree in postorder,
+    // going left whenever possible and right otherwise.
+    {
+      while (node != null)
+      {
+        stack.push(node);
+        if (node.getLeft() != null)
+          node = node.getLeft();
+        else
+          node = node.getRight();
+      }
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      return !stack.isEmpty();
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      if (!hasNext())
+        throw new IndexOutOfBoundsException("illegal invocation of next " + 
+                                   " in BinarySearchTree iterator.\n");
+      BSTNode<T> node = stack.pop();
+      if (orderType == BSTInterface.Traversal.Inorder)
+        pushLeftPath(node.getRight());
+      else if (orderType == BSTInterface.Traversal.Preorder)
+      {
+        if (node.getRight() != null)
+          stack.push(node.getRight());
+        if (node.getLeft() != null)
+          stack.push(node.getLeft());
+      }
+      else if (!stack.isEmpty())
+      {
+        // Postorder: after a left child comes the parent's right subtree
+        BSTNode<T> parent = stack.peek();
+        if (parent.getLeft() == node)
+          pushPostorderPath(parent.getRight());
+      }
+      return node.getInfo();
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Removal during iteration would invalidate the stack.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on " 
+                                            + "BinarySearchTree iterator.\n");
+    }
+  }
+  
+  public Iterator<T> rangeIterator(T low, T high)
+  // Creates and returns an Iterator providing an inorder traversal of the
+  // elements e of this BST such that comp.compare(low, e) <= 0 and
+  // comp.compare(e, high) <= 0. Finding the first element takes time
+  // proportional to the height, and each later element constant amortized time.
+  {
+    return new RangeIterator(low, high);
   }
 
-  public boolean remove (T target)
-  // Removes a node with info i from tree such that comp.compare(target,i) == 0
-  // and returns true; if no such node exists, returns false.
+  private class RangeIterator implements Iterator<T>
+  // Walks the elements between low and high lazily. The stack holds the nodes
+  // not less than low whose info and right subtree remain, smallest on top.
   {
-    root = recRemove(target, root);
-    return found;
+    private final T high;
+    private final ArrayDeque<BSTNode<T>> stack = new ArrayDeque<BSTNode<T>>();
+
+    RangeIterator(T low, T high)
+    {
+      this.high = high;
+      BSTNode<T> node = root;
+      while (node != null)
+      {
+        if (comp.compare(low, node.getInfo()) <= 0)
+        {
+          stack.push(node);              // node and its right subtree are in range
+          node = node.getLeft();
+        }
+        else
+          node = node.getRight();        // node and its left subtree are too small
+      }
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      if (!stack.isEmpty() && comp.compare(stack.peek().getInfo(), high) > 0)
+        stack.clear();                   // Every remaining element is too large
+      return !stack.isEmpty();
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      if (!hasNext())
+        throw new IndexOutOfBoundsException("illegal invocation of next " + 
+                                   " in BinarySearchTree range iterator.\n");
+      BSTNode<T> node = stack.pop();
+      for (BSTNode<T> next = node.getRight(); next != null; next = next.getLeft())
+        stack.push(next);
+      return node.getInfo();
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Removal during iteration would invalidate the stack.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on " 
+                                            + "BinarySearchTree range iterator.\n");
+    }
   }
 
-  public Iterator<T> getIterator(BSTInterface.Traversal orderType)
-  // Creates and returns an Iterator providing a traversal of a "snapshot" 
-  // of the current tree in the order indicated by the argument.
-  // Supports Preorder, Postorder, and Inorder traversal.
+  public Iterator<T> iterator()
+  // InOrder is the default, "natural" order.
   {
-    final LinkedQueue<T> infoQueue = new LinkedQueue<T>();
-    if (orderType == BSTInterface.Traversal.Preorder)
-      preOrder(root, infoQueue);
-    else
-    if (orderType == BSTInterface.Traversal.Inorder)
-      inOrder(root, infoQueue);
-    else
-    if (orderType == BSTInterface.Traversal.Postorder)
-      postOrder(root, infoQueue);
+    return getIterator(BSTInterface.Traversal.Inorder);
+  }
 
-    return new Iterator<T>()
+  public Spliterator<T> spliterator()
+  // Creates and returns a Spliterator over the elements of this tree in
+  // inorder. It splits by subtree and knows the size of every part from the
+  // subtree sizes, so a parallel stream over a balanced tree is divided into
+  // halves of exactly known size. The tree must not be changed while it is
+  // in use.
+  {
+    return new TreeSpliterator(root);
+  }
+
+  private class TreeSpliterator implements Spliterator<T>
+  // Keeps the parts of the tree that remain on a stack, the next part on top
+  // and the last part at the bottom. A part is either a whole subtree, or a
+  // single node whose subtrees are parts of their own.
+  {
+    private BSTNode<T>[] nodes = new BSTNode[16];  // Stack of parts
+    private boolean[] whole = new boolean[16];     // True if nodes[i] is a whole subtree
+    private int top = 0;                           // Number of parts on the stack
+    private long remaining;                        // Number of elements in the parts
+
+    TreeSpliterator(BSTNode<T> root)
+    {
+      push(root, true);
+      remaining = subtreeSize(root);
+    }
+
+    private void push(BSTNode<T> node, boolean isWhole)
+    // Pushes node onto the stack unless it is null.
     {
-      public boolean hasNext()
-      // Returns true if the iteration has more elements; otherwise returns false.
+      if (node == null)
+        return;
+      if (top == nodes.length)
       {
-        return !infoQueue.isEmpty();
+        nodes = Arrays.copyOf(nodes, 2 * top);
+        whole = Arrays.copyOf(whole, 2 * top);
       }
-      
-      public T next()
-      // Returns the next element in the iteration.
-      // Throws NoSuchElementException - if the iteration has no more elements
-      { 
-        if (!hasNext())
-          throw new IndexOutOfBoundsException("illegal invocation of next " + 
-                                     " in BinarySearchTree iterator.\n");
-        return infoQueue.dequeue();
+      nodes[top] = node;
+      whole[top++] = isWhole;
+    }
+
+    public boolean tryAdvance(Consumer<? super T> action)
+    // Passes the next element to action and returns true; if no elements
+    // remain, returns false.
+    {
+      while (top > 0)
+      {
+        BSTNode<T> node = nodes[--top];
+        if (whole[top])
+        {
+          push(node.getRight(), true);
+          push(node, false);
+          push(node.getLeft(), true);
+        }
+        else
+        {
+          remaining--;
+          action.accept(node.getInfo());
+          return true;
+        }
       }
+      return false;
+    }
 
-      public void remove()
-      // Throws UnsupportedOperationException.
-      // Not supported. Removal from snapshot iteration is meaningless.
+    public Spliterator<T> trySplit()
+    // Splits the last part into its left subtree, its node and its right
+    // subtree, keeps the right subtree and returns a Spliterator over every
+    // part before it. Returns null if a single element remains.
+    {
+      if (top > 0 && whole[0])
       {
-        throw new UnsupportedOperationException("Unsupported remove attempted on " 
-                                              + "BinarySearchTree iterator.\n");
+        // Rebuild the stack with the last part expanded at the bottom
+        BSTNode<T>[] oldNodes = nodes;
+        boolean[] oldWhole = whole;
+        int oldTop = top;
+        nodes = new BSTNode[oldTop + 16];
+        whole = new boolean[oldTop + 16];
+        top = 0;
+        push(oldNodes[0].getRight(), true);
+        push(oldNodes[0], false);
+        push(oldNodes[0].getLeft(), true);
+        for (int i = 1; i < oldTop; i++)
+          push(oldNodes[i], oldWhole[i]);
       }
-    };
+      if (top < 2)
+        return null;
+
+      TreeSpliterator prefix = new TreeSpliterator(null);
+      for (int i = 1; i < top; i++)
+        prefix.push(nodes[i], whole[i]);
+      long kept = whole[0] ? subtreeSize(nodes[0]) : 1;
+      prefix.remaining = remaining - kept;
+      Arrays.fill(nodes, 1, top, null);
+      top = 1;
+      remaining = kept;
+      return prefix;
+    }
+
+    public long estimateSize()
+    // Returns the number of elements that remain.
+    {
+      return remaining;
+    }
+
+    public int characteristics()
+    {
+      return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL
+             | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
+
+    public Comparator<? super T> getComparator()
+    // Returns the comparator the elements are sorted by.
+    {
+      return comp;
+    }
   }
 
-  private void preOrder(BSTNode<T> node, LinkedQueue<T> q)
-  // Enqueues the elements from the subtree rooted at node into q in preOrder.
+  public int rank(T target)
+  // Returns the number of elements of this BST that are less than target.
   {
-    if (node != null)
+    int count = 0;
+    BSTNode<T> node = root;
+    while (node != null)
     {
-      q.enqueue(node.getInfo());
-      preOrder(node.getLeft(), q);
-      preOrder(node.getRight(), q);
+      if (comp.compare(target, node.getInfo()) <= 0)
+        node = node.getLeft();
+      else
+      {
+        count = count + subtreeSize(node.getLeft()) + 1;   // node and its left subtree are less
+        node = node.getRight();
+      }
     }
+    return count;
   }
 
-  private void inOrder(BSTNode<T> node, LinkedQueue<T> q)
-  // Enqueues the elements from the subtree rooted at node into q in inOrder.  
+  private int rankUpTo(T target)
+  // Returns the number of elements of this BST that are less than or equal to
+  // target.
   {
-    if (node != null)
+    int count = 0;
+    BSTNode<T> node = root;
+    while (node != null)
     {
-      inOrder(node.getLeft(), q);
-      q.enqueue(node.getInfo());
-      inOrder(node.getRight(), q);
+      if (comp.compare(target, node.getInfo()) < 0)
+        node = node.getLeft();
+      else
+      {
+        count = count + subtreeSize(node.getLeft()) + 1;   // node and its left subtree are not greater
+        node = node.getRight();
+      }
     }
+    return count;
   }
 
-  private void postOrder(BSTNode<T> node, LinkedQueue<T> q)
-  // Enqueues the elements from the subtree rooted at node into q in postOrder.  
+  public T select(int k)
+  // Returns the element with exactly k smaller elements before it in inorder,
+  // so select(0) is the smallest element. If k is not between 0 and
+  // size() - 1, returns null.
   {
-    if (node != null)
+    BSTNode<T> node = root;
+    while (node != null)
     {
-      postOrder(node.getLeft(), q);
-      postOrder(node.getRight(), q);
-      q.enqueue(node.getInfo());
+      int leftSize = subtreeSize(node.getLeft());
+      if (k < leftSize)
+        node = node.getLeft();
+      else if (k > leftSize)
+      {
+        k = k - leftSize - 1;
+        node = node.getRight();
+      }
+      else
+        return node.getInfo();
     }
+    return null;
   }
-  
-  public Iterator<T> iterator()
-  // InOrder is the default, "natural" order.
+
+  public int countRange(T low, T high)
+  // Returns the number of elements e of this BST such that
+  // comp.compare(low, e) <= 0 and comp.compare(e, high) <= 0.
   {
-    return getIterator(BSTInterface.Traversal.Inorder);
+    return Math.max(0, rankUpTo(high) - rank(low));
   }
 
   public void printTree() {
@@ -393,4 +834,80 @@ public class BinarySearchTree<T> implements BSTInterface<T>
 
     return 1 + Math.max(leftHeight, rightHeight);  // Return height if balanced
   }
+
+  public void rebalance()
+  // Restructures this BST into a balanced tree in O(n) time and O(1) extra space
+  // using the Day-Stout-Warren algorithm: the tree is rotated into a "vine" of
+  // right links in sorted order, and the vine is then compressed into a tree.
+  // Every rotation updates the sizes of the two nodes it moves, so the sizes
+  // stay correct without another pass over the tree.
+  {
+    BSTNode<T> pseudoRoot = new BSTNode<T>(null);
+    pseudoRoot.setRight(root);
+    int count = treeToVine(pseudoRoot);
+    vineToTree(pseudoRoot, count);
+    root = pseudoRoot.getRight();
+  }
+
+  private int treeToVine(BSTNode<T> pseudoRoot)
+  // Rotates the tree hanging to the right of pseudoRoot into a vine where every
+  // node only has a right child. Returns the number of nodes in the vine.
+  {
+    int count = 0;
+    BSTNode<T> tail = pseudoRoot;
+    BSTNode<T> rest = tail.getRight();
+    while (rest != null)
+    {
+      if (rest.getLeft() == null)
+      {
+        // Move down the vine
+        tail = rest;
+        rest = rest.getRight();
+        count++;
+      }
+      else
+      {
+        // Rotate the left child up to rest's position
+        BSTNode<T> temp = rest.getLeft();
+        rest.setLeft(temp.getRight());
+        temp.setRight(rest);
+        updateSize(rest);   // rest is now below temp
+        updateSize(temp);
+        rest = temp;
+        tail.setRight(temp);
+      }
+    }
+    return count;
+  }
+
+  private void vineToTree(BSTNode<T> pseudoRoot, int count)
+  // Compresses the vine of count nodes hanging to the right of pseudoRoot into
+  // a balanced tree. The first pass places the nodes of the bottom level.
+  {
+    int leaves = count + 1 - Integer.highestOneBit(count + 1);
+    compress(pseudoRoot, leaves);
+    count = count - leaves;
+    while (count > 1)
+    {
+      count = count / 2;
+      compress(pseudoRoot, count);
+    }
+  }
+
+  private void compress(BSTNode<T> pseudoRoot, int count)
+  // Rotates left every other node of the vine hanging to the right of
+  // pseudoRoot, count times.
+  {
+    BSTNode<T> scanner = pseudoRoot;
+    for (int i = 0; i < count; i++)
+    {
+      BSTNode<T> child = scanner.getRight();
+      scanner.setRight(child.getRight());
+      scanner = scanner.getRight();
+      child.setRight(scanner.getLeft());
+      scanner.setLeft(child);
+      updateSize(child);    // child is now below scanner
+      updateSize(scanner);
+    }
+  }
 }
\ No newline at end of file
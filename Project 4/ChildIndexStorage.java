@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+// Implements RelationStorage using parallel arrays of indices.
+// left[i], right[i] and parent[i] hold the index of the related node of node i, or NUL if there is none.
+// Finding a child takes constant time and memory grows linearly with the capacity.
+public class ChildIndexStorage implements RelationStorage {
+    protected int cap;          // Number of nodes
+    protected int[] left;       // Index of the left child of each node
+    protected int[] right;      // Index of the right child of each node
+    protected int[] parent;     // Index of the parent of each node
+
+    public ChildIndexStorage(int cap) {
+        this.cap = cap;
+        left = new int[cap];
+        right = new int[cap];
+        parent = new int[cap];
+        Arrays.fill(left, NUL);     // Initialize all relations to none
+        Arrays.fill(right, NUL);
+        Arrays.fill(parent, NUL);
+    }
+
+    public int capacity() {
+        return cap;
+    }
+
+    public int findLeft(int node) {
+        return left[node];
+    }
+
+    public int findRight(int node) {
+        return right[node];
+    }
+
+    public void setLeft(int parent, int child) {
+        left[parent] = child;
+        this.parent[child] = parent;
+    }
+
+    public void setRight(int parent, int child) {
+        right[parent] = child;
+        this.parent[child] = parent;
+    }
+
+    public void clearNode(int node) {
+        detachFromParent(node);
+        if (left[node] != NUL)
+            parent[left[node]] = NUL;
+        if (right[node] != NUL)
+            parent[right[node]] = NUL;
+        left[node] = NUL;
+        right[node] = NUL;
+    }
+
+    public void moveNode(int toNode, int fromNode) {
+        detachFromParent(fromNode);
+        left[toNode] = left[fromNode];      // Copy relations
+        right[toNode] = right[fromNode];
+        if (left[toNode] != NUL)
+            parent[left[toNode]] = toNode;
+        if (right[toNode] != NUL)
+            parent[right[toNode]] = toNode;
+        left[fromNode] = NUL;               // Remove relations of old node
+        right[fromNode] = NUL;
+    }
+
+    public void resize(int newCap) {
+        int oldCap = cap;
+        cap = newCap;
+        left = Arrays.copyOf(left, cap);
+        right = Arrays.copyOf(right, cap);
+        parent = Arrays.copyOf(parent, cap);
+        if (cap > oldCap) {     // Initialize new relations to none
+            Arrays.fill(left, oldCap, cap, NUL);
+            Arrays.fill(right, oldCap, cap, NUL);
+            Arrays.fill(parent, oldCap, cap, NUL);
+        }
+    }
+
+    // Removes the relation between node and its parent, if it has one.
+    private void detachFromParent(int node) {
+        int p = parent[node];
+        if (p != NUL) {
+            if (left[p] == node)
+                left[p] = NUL;
+            else if (right[p] == node)
+                right[p] = NUL;
+            parent[node] = NUL;
+        }
+    }
+}
@@ -0,0 +1,688 @@
+//---------------------------------------------------------------------------
+// ConcurrentBST.java
+//
+// Defines a reference-based BST that can be shared by many threads. It is
+// meant for trees that are searched far more often than they are changed.
+//
+// Writers (add, remove, getOrAdd on a miss, rebalance) hold the write lock
+// of a StampedLock, so they run one at a time. Searches do not lock: they
+// walk the tree under an optimistic stamp and only search again holding the
+// shared read lock if a writer changed the tree meanwhile. Readers never
+// block each other.
+//
+// The info of a node is final and its links are volatile. Every change is
+// made visible by a single write of one link: add links in a new leaf,
+// remove links in copies of the nodes next to the removed one in order (the
+// spines of its subtrees), and rebalance builds a new tree and then swaps
+// the root. A node that is unlinked is never changed again, and the range of
+// elements that may be added below a node never grows. So the iterators can
+// walk the live tree without locking. They are weakly
+// consistent: they never fail because of a concurrent change, return the
+// elements in order, and return every element that is in the tree for the
+// whole iteration, but may or may not reflect other changes.
+//---------------------------------------------------------------------------
+
+import java.util.*;   // Iterator, Comparator, ArrayDeque, Arrays, Spliterator
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+public class ConcurrentBST<T> implements BSTInterface<T>
+{
+  private static final class Node<T>
+  // A node whose info never changes. The links are volatile, so a node linked
+  // in by a writer is seen whole by every reader.
+  {
+    final T info;
+    volatile Node<T> left;
+    volatile Node<T> right;
+
+    Node(T info, Node<T> left, Node<T> right)
+    {
+      this.info = info;
+      this.left = left;
+      this.right = right;
+    }
+  }
+
+  protected final Comparator<T> comp;   // used for all comparisons
+
+  private final StampedLock lock = new StampedLock();   // held by writers
+  private volatile Node<T> root;        // reference to the root of this BST
+  private volatile int numElements;     // changed only by writers
+
+  public ConcurrentBST()
+  // Precondition: T implements Comparable
+  // Creates an empty concurrent BST object - uses the natural order of
+  // elements.
+  {
+    this(new Comparator<T>()
+    {
+       public int compare(T element1, T element2)
+       {
+         return ((Comparable)element1).compareTo(element2);
+       }
+    });
+  }
+
+  public ConcurrentBST(Comparator<T> comp)
+  // Creates an empty concurrent BST object - uses Comparator comp for order
+  // of elements.
+  {
+    root = null;
+    this.comp = comp;
+  }
+
+  public boolean isFull()
+  // Returns false; this link-based BST is never full.
+  {
+    return false;
+  }
+
+  public boolean isEmpty()
+  // Returns true if this BST is empty; otherwise, returns false.
+  {
+    return (root == null);
+  }
+
+  public int size()
+  // Returns the number of elements in this BST.
+  {
+    return numElements;
+  }
+
+  private T read(Supplier<T> search)
+  // Returns the result of search, which only reads the tree. search is run
+  // without locking first, and again holding the read lock if a writer
+  // changed the tree meanwhile.
+  {
+    long stamp = lock.tryOptimisticRead();
+    T result = search.get();
+    if (!lock.validate(stamp))
+    {
+      stamp = lock.readLock();
+      try
+      {
+        result = search.get();
+      }
+      finally
+      {
+        lock.unlockRead(stamp);
+      }
+    }
+    return result;
+  }
+
+  private T find(T target)
+  // Returns info i from node of this BST where comp.compare(target, i) == 0;
+  // if no such node exists, returns null. Does not lock.
+  {
+    Node<T> node = root;
+    while (node != null)
+    {
+      int result = comp.compare(target, node.info);
+      if (result < 0)
+        node = node.left;              // Search left subtree
+      else if (result > 0)
+        node = node.right;             // Search right subtree
+      else
+        return node.info;              // target is found
+    }
+    return null;                       // target is not found
+  }
+
+  public T get(T target)
+  // Returns info i from node of this BST where comp.compare(target, i) == 0;
+  // if no such node exists, returns null.
+  {
+    return read(() -> find(target));
+  }
+
+  public boolean contains (T target)
+  // Returns true if this BST contains a node with info i such that
+  // comp.compare(target, i) == 0; otherwise, returns false.
+  {
+    return get(target) != null;
+  }
+
+  public T min()
+  // If this BST is empty, returns null;
+  // otherwise returns the smallest element of the tree.
+  {
+    return read(() ->
+    {
+      Node<T> node = root, next;
+      if (node == null)
+        return null;
+      while ((next = node.left) != null)
+        node = next;
+      return node.info;
+    });
+  }
+
+  public T max()
+  // If this BST is empty, returns null;
+  // otherwise returns the largest element of the tree.
+  {
+    return read(() ->
+    {
+      Node<T> node = root, next;
+      if (node == null)
+        return null;
+      while ((next = node.right) != null)
+        node = next;
+      return node.info;
+    });
+  }
+
+  public T ceiling(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) >= 0; if no such element exists, returns null.
+  {
+    return read(() ->
+    {
+      T result = null;
+      Node<T> node = root;
+      while (node != null)
+      {
+        if (comp.compare(target, node.info) <= 0)
+        {
+          result = node.info;          // Candidate, look for a smaller one
+          node = node.left;
+        }
+        else
+          node = node.right;
+      }
+      return result;
+    });
+  }
+
+  public T floor(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) <= 0; if no such element exists, returns null.
+  {
+    return read(() ->
+    {
+      T result = null;
+      Node<T> node = root;
+      while (node != null)
+      {
+        if (comp.compare(target, node.info) >= 0)
+        {
+          result = node.info;          // Candidate, look for a larger one
+          node = node.right;
+        }
+        else
+          node = node.left;
+      }
+      return result;
+    });
+  }
+
+  public T higher(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) > 0; if no such element exists, returns null.
+  {
+    return read(() ->
+    {
+      T result = null;
+      Node<T> node = root;
+      while (node != null)
+      {
+        if (comp.compare(target, node.info) < 0)
+        {
+          result = node.info;          // Candidate, look for a smaller one
+          node = node.left;
+        }
+        else
+          node = node.right;
+      }
+      return result;
+    });
+  }
+
+  public T lower(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) < 0; if no such element exists, returns null.
+  {
+    return read(() ->
+    {
+      T result = null;
+      Node<T> node = root;
+      while (node != null)
+      {
+        if (comp.compare(target, node.info) > 0)
+        {
+          result = node.info;          // Candidate, look for a larger one
+          node = node.right;
+        }
+        else
+          node = node.left;
+      }
+      return result;
+    });
+  }
+
+  public boolean add (T element)
+  // Adds element to this BST. The tree retains its BST property.
+  {
+    long stamp = lock.writeLock();
+    try
+    {
+      link(element);
+      return true;
+    }
+    finally
+    {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private void link(T element)
+  // Adds a new node holding element below the last node on its search path.
+  // The caller must hold the write lock.
+  {
+    Node<T> newNode = new Node<T>(element, null, null);
+    Node<T> node = root;
+    if (node == null)
+      root = newNode;
+    else
+    {
+      while (true)
+      {
+        if (comp.compare(element, node.info) <= 0)
+        {
+          if (node.left == null)
+          {
+            node.left = newNode;
+            break;
+          }
+          node = node.left;
+        }
+        else
+        {
+          if (node.right == null)
+          {
+            node.right = newNode;
+            break;
+          }
+          node = node.right;
+        }
+      }
+    }
+    numElements++;
+  }
+
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this BST such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it.
+  // A hit does not lock. A miss searches again holding the write lock, so two
+  // threads adding the same key add it only once.
+  {
+    T element = get(key);
+    if (element != null)
+      return element;
+
+    long stamp = lock.writeLock();
+    try
+    {
+      element = find(key);             // Another writer may have added key
+      if (element == null)
+      {
+        element = supplier.get();
+        link(element);
+      }
+      return element;
+    }
+    finally
+    {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  public boolean remove (T target)
+  // Removes a node with info i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such node exists, returns false.
+  {
+    long stamp = lock.writeLock();
+    try
+    {
+      Node<T> parent = null, node = root;
+      int result;
+      while (node != null && (result = comp.compare(target, node.info)) != 0)
+      {
+        parent = node;
+        node = (result < 0) ? node.left : node.right;
+      }
+      if (node == null)
+        return false;
+
+      // The nodes whose range of elements was bounded by node's info are on
+      // the right spine of its left subtree and the left spine of its right
+      // subtree. They are copied, so an iterator that has passed node never
+      // meets the elements that may be added below them later.
+      Node<T> replacement;
+      if (node.left != null && node.right != null)
+        // Replace node with a copy of its predecessor
+        replacement = new Node<T>(maxNode(node.left).info,
+                                  copyRightSpine(node.left, true), copyLeftSpine(node.right));
+      else if (node.left != null)
+        replacement = copyRightSpine(node.left, false);
+      else
+        replacement = copyLeftSpine(node.right);   // null if node is a leaf
+      replaceChild(parent, node, replacement);
+      numElements--;
+      return true;
+    }
+    finally
+    {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private Node<T> maxNode(Node<T> node)
+  // Returns the node holding the largest element of the subtree rooted at
+  // node.
+  {
+    while (node.right != null)
+      node = node.right;
+    return node;
+  }
+
+  private Node<T> copyRightSpine(Node<T> node, boolean withoutMax)
+  // Returns the root of a tree holding the elements of the subtree rooted at
+  // node, leaving out its largest element if withoutMax is true. The nodes on
+  // the path to the largest element are copied and the rest are shared, so
+  // the subtree itself is not changed.
+  {
+    Node<T> top = null, copy = null;
+    for (; node != null; node = node.right)
+    {
+      Node<T> next;
+      if (withoutMax && node.right == null)
+        next = node.left;              // Skip the largest element
+      else
+        next = new Node<T>(node.info, node.left, null);
+      if (copy == null)
+        top = next;
+      else
+        copy.right = next;             // The copies are not linked in yet
+      copy = next;
+    }
+    return top;
+  }
+
+  private Node<T> copyLeftSpine(Node<T> node)
+  // Returns the root of a tree holding the elements of the subtree rooted at
+  // node. The nodes on the path to the smallest element are copied and the
+  // rest are shared, so the subtree itself is not changed.
+  {
+    Node<T> top = null, copy = null;
+    for (; node != null; node = node.left)
+    {
+      Node<T> next = new Node<T>(node.info, null, node.right);
+      if (copy == null)
+        top = next;
+      else
+        copy.left = next;              // The copies are not linked in yet
+      copy = next;
+    }
+    return top;
+  }
+
+  private void replaceChild(Node<T> parent, Node<T> oldChild, Node<T> newChild)
+  // Makes newChild take the place of oldChild below parent, or at the root if
+  // parent is null.
+  {
+    if (parent == null)
+      root = newChild;
+    else if (parent.left == oldChild)
+      parent.left = newChild;
+    else
+      parent.right = newChild;
+  }
+
+  public void rebalance()
+  // Replaces this BST by a balanced tree holding the same elements. The new
+  // tree is built from new nodes and then swapped in, so readers walking the
+  // old tree are not disturbed.
+  {
+    long stamp = lock.writeLock();
+    try
+    {
+      root = recBuild(getIterator(Traversal.Inorder), numElements);
+    }
+    finally
+    {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private Node<T> recBuild(Iterator<T> elements, int n)
+  // Links the next n elements into a balanced tree of new nodes and returns
+  // its root. The left subtree is built first, so the nodes take the
+  // elements in inorder.
+  {
+    if (n == 0)
+      return null;
+    int leftSize = (n - 1) / 2;
+    Node<T> left = recBuild(elements, leftSize);
+    T info = elements.next();
+    return new Node<T>(info, left, recBuild(elements, n - 1 - leftSize));
+  }
+
+  public Iterator<T> getIterator(BSTInterface.Traversal orderType)
+  // Creates and returns a weakly consistent Iterator providing a traversal
+  // of the current tree in the order indicated by the argument. The tree is
+  // not locked, and may be changed while the iterator is in use.
+  {
+    return new TreeIterator(orderType);
+  }
+
+  private class TreeIterator implements Iterator<T>
+  // Walks the live tree with a stack of nodes. The links of each node are read
+  // once, when the node is expanded: its subtrees and the node itself are
+  // then pushed in the reverse of the order they are visited in.
+  {
+    private final BSTInterface.Traversal orderType;
+    private Node<T>[] nodes = new Node[16];        // Stack of nodes
+    private boolean[] expanded = new boolean[16];  // True if nodes[i] was expanded
+    private int top = 0;                           // Number of nodes on the stack
+
+    TreeIterator(BSTInterface.Traversal orderType)
+    {
+      this.orderType = orderType;
+      push(root, false);
+    }
+
+    private void push(Node<T> node, boolean isExpanded)
+    // Pushes node onto the stack unless it is null.
+    {
+      if (node == null)
+        return;
+      if (top == nodes.length)
+      {
+        nodes = Arrays.copyOf(nodes, 2 * top);
+        expanded = Arrays.copyOf(expanded, 2 * top);
+      }
+      nodes[top] = node;
+      expanded[top++] = isExpanded;
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      return top > 0;
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      while (top > 0)
+      {
+        Node<T> node = nodes[--top];
+        if (expanded[top])
+          return node.info;
+        Node<T> left = node.left, right = node.right;
+        if (orderType == BSTInterface.Traversal.Preorder)
+        {
+          push(right, false);
+          push(left, false);
+          return node.info;
+        }
+        else if (orderType == BSTInterface.Traversal.Inorder)
+        {
+          push(right, false);
+          push(node, true);
+          push(left, false);
+        }
+        else
+        {
+          push(node, true);
+          push(right, false);
+          push(left, false);
+        }
+      }
+      throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                 " in ConcurrentBST iterator.\n");
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Use the remove method of the tree.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                            + "ConcurrentBST iterator.\n");
+    }
+  }
+
+  public Iterator<T> rangeIterator(T low, T high)
+  // Creates and returns a weakly consistent Iterator providing an inorder
+  // traversal of the elements e of this BST such that comp.compare(low, e) <= 0
+  // and comp.compare(e, high) <= 0. The tree is not locked.
+  {
+    return new RangeIterator(low, high);
+  }
+
+  private class RangeIterator implements Iterator<T>
+  // Walks the elements between low and high lazily. The stack holds the nodes
+  // not less than low whose info and right subtree remain, smallest on top.
+  {
+    private final T high;
+    private final ArrayDeque<Node<T>> stack = new ArrayDeque<Node<T>>();
+
+    RangeIterator(T low, T high)
+    {
+      this.high = high;
+      Node<T> node = root;
+      while (node != null)
+      {
+        if (comp.compare(low, node.info) <= 0)
+        {
+          stack.push(node);              // node and its right subtree are in range
+          node = node.left;
+        }
+        else
+          node = node.right;             // node and its left subtree are too small
+      }
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      if (!stack.isEmpty() && comp.compare(stack.peek().info, high) > 0)
+        stack.clear();                   // Every remaining element is too large
+      return !stack.isEmpty();
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      if (!hasNext())
+        throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                   " in ConcurrentBST range iterator.\n");
+      Node<T> node = stack.pop();
+      for (Node<T> next = node.right; next != null; next = next.left)
+        stack.push(next);
+      return node.info;
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Use the remove method of the tree.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                            + "ConcurrentBST range iterator.\n");
+    }
+  }
+
+  public Iterator<T> iterator()
+  // InOrder is the default, "natural" order.
+  {
+    return getIterator(BSTInterface.Traversal.Inorder);
+  }
+
+  public Spliterator<T> spliterator()
+  // Creates and returns a weakly consistent Spliterator over the elements of
+  // this tree in inorder. The tree may change while it is in use, so it does
+  // not report a size.
+  {
+    return Spliterators.spliteratorUnknownSize(iterator(),
+             Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.CONCURRENT);
+  }
+
+  public void printTree()
+  // Prints the tree sideways, holding the read lock so writers wait.
+  {
+    long stamp = lock.readLock();
+    try
+    {
+      printBinaryTree(root, 0);
+    }
+    finally
+    {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  private void printBinaryTree(Node<T> root, int level){
+    if(root==null)
+         return;
+    printBinaryTree(root.right, level+1);
+    if(level!=0){
+        for(int i=0;i<level-1;i++)
+            System.out.print("|\t");
+        System.out.println("|-------"+root.info);
+    }
+    else
+        System.out.println(root.info);
+    printBinaryTree(root.left, level+1);
+  }
+
+  // Returns true if tree is balanced, otherwise false.
+  // Holds the read lock so writers wait.
+  public boolean isBalanced() {
+    long stamp = lock.readLock();
+    try {
+      return recIsBalanced(root) != -1;
+    }
+    finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  // Returns height of subtree if balanced, otherwise returns -1 if unbalanced.
+  private int recIsBalanced(Node<T> node) {
+    if (node == null)
+      return 0;
+
+    int leftHeight = recIsBalanced(node.left);
+    if (leftHeight == -1)
+      return -1;
+    int rightHeight = recIsBalanced(node.right);
+    if (rightHeight == -1 || Math.abs(leftHeight - rightHeight) > 1)
+      return -1;
+    return 1 + Math.max(leftHeight, rightHeight);
+  }
+}
@@ -0,0 +1,84 @@
+import java.util.Arrays;
+
+// Implements RelationStorage using an adjacency matrix of Relation values.
+// Rows are parents and columns are children.
+// Rows are only allocated when a relation is first stored in them, and a missing row or null cell means NONE,
+// so creating the matrix does not touch its cap x cap cells.
+public class EnumRelationMatrix implements RelationStorage {
+    protected int cap;                          // Number of rows and columns
+    protected MatrixBST.Relation[][] matrix;    // Contains the relations of a node (rows are parents, columns are children)
+
+    public EnumRelationMatrix(int cap) {
+        this.cap = cap;
+        matrix = new MatrixBST.Relation[cap][];  // Rows are allocated on first use
+    }
+
+    public int capacity() {
+        return cap;
+    }
+
+    // Returns the index of the left child if found. Otherwise returns NUL.
+    public int findLeft(int row) {
+        return findColumn(row, MatrixBST.Relation.L);
+    }
+
+    // Returns the index of the right child if found. Otherwise returns NUL.
+    public int findRight(int row) {
+        return findColumn(row, MatrixBST.Relation.R);
+    }
+
+    public void setLeft(int parent, int child) {
+        row(parent)[child] = MatrixBST.Relation.L;
+    }
+
+    public void setRight(int parent, int child) {
+        row(parent)[child] = MatrixBST.Relation.R;
+    }
+
+    public void clearNode(int node) {
+        matrix[node] = null;    // Remove child relations of node
+        clearColumn(node);      // Remove parent relations of node
+    }
+
+    public void resize(int newCap) {
+        matrix = Arrays.copyOf(matrix, newCap);
+        for (int i = 0; i < newCap; i++) {
+            if (matrix[i] != null)
+                matrix[i] = Arrays.copyOf(matrix[i], newCap);   // Keep existing relations
+        }
+        cap = newCap;
+    }
+
+    public void moveNode(int toNode, int fromNode) {
+        matrix[toNode] = matrix[fromNode];  // Copy relations
+        matrix[fromNode] = null;            // Remove relations of old node
+        clearColumn(fromNode);              // Remove parents of old node for safety
+    }
+
+    // Returns the first column in row holding relation, or NUL if there is none.
+    private int findColumn(int row, MatrixBST.Relation relation) {
+        MatrixBST.Relation[] cells = matrix[row];
+        if (cells != null) {
+            for (int column = 0; column < cap; column++) {
+                if (cells[column] == relation)
+                    return column;
+            }
+        }
+        return NUL;
+    }
+
+    // Returns the cells of row, allocating them if the row has never been used
+    private MatrixBST.Relation[] row(int row) {
+        if (matrix[row] == null)
+            matrix[row] = new MatrixBST.Relation[cap];
+        return matrix[row];
+    }
+
+    // Sets every cell in column to NONE
+    private void clearColumn(int column) {
+        for (int i = 0; i < cap; i++) {
+            if (matrix[i] != null)
+                matrix[i][column] = null;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+import java.util.*; // Iterator, Comparator
+
+// Implements a read-only BSTInterface that stores its elements in Eytzinger (breadth-first) order in an array.
+// The children of the node at index i are at indices 2i + 1 and 2i + 2, so no links are stored and the tree is
+// always complete. The first levels of every search share the same few cache lines at the front of the array.
+// The tree is built once from elements in sorted order. add and remove throw UnsupportedOperationException.
+public class EytzingerBST<T> implements BSTInterface<T> {
+    protected T[] data;                 // Contains the elements in breadth-first order
+    protected int numElements;          // Number of elements in the tree
+    protected Comparator<T> comp;       // Comparator used for all comparisons
+
+    // Creates a tree holding the elements of tree, using the natural order of elements
+    // Precondition: T implements Comparable
+    public EytzingerBST(BSTInterface<T> tree) {
+        this(tree.getIterator(BSTInterface.Traversal.Inorder), tree.size());
+    }
+
+    // Creates a tree holding the first numElements elements of iter, using the natural order of elements
+    // Precondition: T implements Comparable and iter returns the elements in sorted order
+    public EytzingerBST(Iterator<T> iter, int numElements) {
+        this(iter, numElements, new Comparator<T>() {
+            public int compare(T element1, T element2) {
+                return ((Comparable)element1).compareTo(element2);
+            }
+        });
+    }
+
+    // Creates a tree holding the first numElements elements of iter, using comp for the order of elements
+    // Precondition: iter returns the elements in the order given by comp
+    public EytzingerBST(Iterator<T> iter, int numElements, Comparator<T> comp) {
+        this.numElements = numElements;
+        this.comp = comp;
+        data = (T[]) new Object[numElements];
+        fill(0, iter);
+    }
+
+    // Places the next elements of iter into the subtree rooted at node in inorder
+    private void fill(int node, Iterator<T> iter) {
+        if (node < numElements) {
+            fill(2 * node + 1, iter);
+            data[node] = iter.next();
+            fill(2 * node + 2, iter);
+        }
+    }
+
+    // Returns the index of the smallest element that is not less than target, or -1 if every element is less.
+    // The loop has no data dependent branches: the comparison result's sign bit picks the child.
+    protected int lowerBound(T target) {
+        int node = 0;
+        while (node < numElements)
+            node = 2 * node + 1 + (comp.compare(data[node], target) >>> 31);   // Right child if data[node] < target
+
+        // The path went right after every element less than target and left at the answer.
+        // Undo the right turns taken after the last left turn, then the left turn itself.
+        int position = node + 1;
+        position >>>= Integer.numberOfTrailingZeros(~position) + 1;
+        return position - 1;
+    }
+
+    // Returns the index of the smallest element that is greater than target, or -1 if no element is greater.
+    // Works like lowerBound, going right after every element not greater than target.
+    protected int upperBound(T target) {
+        int node = 0;
+        while (node < numElements)
+            node = 2 * node + 2 - (comp.compare(target, data[node]) >>> 31);   // Left child if target < data[node]
+        int position = node + 1;
+        position >>>= Integer.numberOfTrailingZeros(~position) + 1;
+        return position - 1;
+    }
+
+    // Returns the index of the element after node in inorder, or -1 if node holds the largest element.
+    protected int successor(int node) {
+        if (2 * node + 2 < numElements) {
+            node = 2 * node + 2;                // Leftmost node of the right subtree
+            while (2 * node + 1 < numElements)
+                node = 2 * node + 1;
+            return node;
+        }
+        while (node > 0 && node % 2 == 0)       // Climb while node is a right child
+            node = (node - 2) / 2;
+        return (node == 0) ? -1 : (node - 1) / 2;
+    }
+
+    // Returns the index of the element before node in inorder, or -1 if node holds the smallest element.
+    protected int predecessor(int node) {
+        if (2 * node + 1 < numElements) {
+            node = 2 * node + 1;                // Rightmost node of the left subtree
+            while (2 * node + 2 < numElements)
+                node = 2 * node + 2;
+            return node;
+        }
+        while (node > 0 && node % 2 == 1)       // Climb while node is a left child
+            node = (node - 1) / 2;
+        return (node == 0) ? -1 : (node - 2) / 2;
+    }
+
+    // Returns the index of the largest element, or -1 if the tree is empty.
+    protected int last() {
+        if (isEmpty())
+            return -1;
+        int node = 0;
+        while (2 * node + 2 < numElements)
+            node = 2 * node + 2;
+        return node;
+    }
+
+    // Returns the smallest element e such that comp.compare(e, target) >= 0. If no such element exists, returns null.
+    public T ceiling(T target) {
+        int node = lowerBound(target);
+        return (node == -1) ? null : data[node];
+    }
+
+    // Returns the smallest element e such that comp.compare(e, target) > 0. If no such element exists, returns null.
+    public T higher(T target) {
+        int node = upperBound(target);
+        return (node == -1) ? null : data[node];
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) <= 0. If no such element exists, returns null.
+    // This is the element before the smallest element greater than target.
+    public T floor(T target) {
+        int node = upperBound(target);
+        node = (node == -1) ? last() : predecessor(node);
+        return (node == -1) ? null : data[node];
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) < 0. If no such element exists, returns null.
+    // This is the element before the smallest element not less than target.
+    public T lower(T target) {
+        int node = lowerBound(target);
+        node = (node == -1) ? last() : predecessor(node);
+        return (node == -1) ? null : data[node];
+    }
+
+    // Creates and returns an Iterator providing an inorder traversal of the elements e such that
+    // comp.compare(low, e) <= 0 and comp.compare(e, high) <= 0.
+    public Iterator<T> rangeIterator(T low, final T high) {
+        final int first = lowerBound(low);
+        return new Iterator<T>() {
+            private int node = first;   // Index of the next element, or -1 when done
+
+            // Returns true if the iteration has more elements; otherwise returns false.
+            public boolean hasNext() {
+                if (node != -1 && comp.compare(data[node], high) > 0)
+                    node = -1;          // Every remaining element is too large
+                return node != -1;
+            }
+
+            // Returns the next element in the iteration.
+            // Throws NoSuchElementException - if the iteration has no more elements
+            public T next() {
+                if (!hasNext())
+                    throw new IndexOutOfBoundsException("Illegal invocation of next in EytzingerBST range iterator.\n");
+                T element = data[node];
+                node = successor(node);
+                return element;
+            }
+
+            // Throws UnsupportedOperationException. The tree is read-only.
+            public void remove() {
+                throw new UnsupportedOperationException("Unsupported remove attempted on EytzingerBST range iterator.\n");
+            }
+        };
+    }
+
+    // Returns info i from node of this BST where comp.compare(target, i) == 0.
+    // If no such node exists, returns null.
+    public T get(T target) {
+        int node = lowerBound(target);
+        if (node != -1 && comp.compare(target, data[node]) == 0)
+            return data[node];
+        return null;
+    }
+
+    // Returns true if this BST contains a node with info i such that comp.compare(target, i) == 0.
+    // Otherwise, returns false.
+    public boolean contains(T target) {
+        return get(target) != null;
+    }
+
+    // Throws UnsupportedOperationException. The tree is read-only.
+    public boolean add(T element) {
+        throw new UnsupportedOperationException("Unsupported add attempted on EytzingerBST.\n");
+    }
+
+    // Throws UnsupportedOperationException. The tree is read-only.
+    public boolean remove(T target) {
+        throw new UnsupportedOperationException("Unsupported remove attempted on EytzingerBST.\n");
+    }
+
+    // Returns true; no elements can be added.
+    public boolean isFull() {
+        return true;
+    }
+
+    // Returns true if there are no elements. Otherwise returns false.
+    public boolean isEmpty() {
+        return numElements == 0;
+    }
+
+    // Returns the number of elements in the tree.
+    public int size() {
+        return numElements;
+    }
+
+    // If the BST is empty, returns null. Otherwise returns the smallest element in the tree.
+    public T min() {
+        if (isEmpty())
+            return null;
+        int node = 0;
+        while (2 * node + 1 < numElements)
+            node = 2 * node + 1;
+        return data[node];
+    }
+
+    // If the BST is empty, returns null. Otherwise returns the largest element in the tree.
+    public T max() {
+        if (isEmpty())
+            return null;
+        int node = 0;
+        while (2 * node + 2 < numElements)
+            node = 2 * node + 2;
+        return data[node];
+    }
+
+    // Creates and returns an Iterator providing a traversal of a "snapshot" of the current tree in the order indicated by the argument.
+    // Supports Preorder, Postorder, and Inorder traversal.
+    public Iterator<T> getIterator(BSTInterface.Traversal orderType) {
+        final LinkedQueue<T> infoQueue = new LinkedQueue<T>();
+        if (orderType == BSTInterface.Traversal.Preorder)
+            preOrder(0, infoQueue);
+        else if (orderType == BSTInterface.Traversal.Inorder)
+            inOrder(0, infoQueue);
+        else if (orderType == BSTInterface.Traversal.Postorder)
+            postOrder(0, infoQueue);
+
+        return new Iterator<T>() {
+            // Returns true if the iteration has more elements; otherwise returns false.
+            public boolean hasNext() {
+                return !infoQueue.isEmpty();
+            }
+
+            // Returns the next element in the iteration.
+            // Throws NoSuchElementException - if the iteration has no more elements
+            public T next() {
+                if (!hasNext())
+                    throw new IndexOutOfBoundsException("Illegal invocation of next in EytzingerBST iterator.\n");
+                return infoQueue.dequeue();
+            }
+
+            // Throws UnsupportedOperationException.
+            // Not supported. Removal from snapshot iteration is meaningless.
+            public void remove() {
+                throw new UnsupportedOperationException("Unsupported remove attempted on EytzingerBST iterator.\n");
+            }
+        };
+    }
+
+    // Enqueues the elements from the subtree rooted at node into q in preOrder.
+    private void preOrder(int node, LinkedQueue<T> q) {
+        if (node < numElements) {
+            q.enqueue(data[node]);
+            preOrder(2 * node + 1, q);
+            preOrder(2 * node + 2, q);
+        }
+    }
+
+    // Enqueues the elements from the subtree rooted at node into q in inOrder.
+    private void inOrder(int node, LinkedQueue<T> q) {
+        if (node < numElements) {
+            inOrder(2 * node + 1, q);
+            q.enqueue(data[node]);
+            inOrder(2 * node + 2, q);
+        }
+    }
+
+    // Enqueues the elements from the subtree rooted at node into q in postOrder.
+    private void postOrder(int node, LinkedQueue<T> q) {
+        if (node < numElements) {
+            postOrder(2 * node + 1, q);
+            postOrder(2 * node + 2, q);
+            q.enqueue(data[node]);
+        }
+    }
+
+    // InOrder is the default, "natural" order.
+    public Iterator<T> iterator() {
+        return getIterator(BSTInterface.Traversal.Inorder);
+    }
+
+    // Prints a graphical representation of the tree.
+    // Does not work for all data types.
+    public void printTree() {
+        printBinaryTree(0, 0);
+    }
+
+    protected void printBinaryTree(int root, int level) {
+        if (root >= numElements)
+            return;
+        printBinaryTree(2 * root + 2, level + 1);
+        if (level != 0) {
+            for (int i = 0; i < level - 1; i++)
+                System.out.print("|\t");
+            System.out.println("|-------" + data[root]);
+        }
+        else
+            System.out.println(data[root]);
+        printBinaryTree(2 * root + 1, level + 1);
+    }
+
+    // Returns true; a complete tree is always balanced.
+    public boolean isBalanced() {
+        return true;
+    }
+
+    // Does nothing; a complete tree is always balanced.
+    public void rebalance() {
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.*; // Iterator, Arrays, Spliterator
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Implements BSTInterface by wrapping another tree and keeping a hash table of its elements in front of it.
+// get, contains and the search of getOrAdd look the element up by its key in the table, which takes one hash and
+// usually one equals call instead of a comparison per level. Every other method is passed on to the tree, so
+// iteration and range searches keep its order. add and remove change the tree and the table together.
+// The table uses open addressing with linear probing and holds one element per distinct key, with the number of
+// elements of the tree that have that key. It doubles before it gets more than half full.
+// Precondition: keyOf(e1).equals(keyOf(e2)) exactly when the tree finds e1 and e2 equal, and keyOf(e).hashCode()
+// is cheap or cached, as for String.
+public class HashFrontBST<T, K> implements BSTInterface<T> {
+    protected static final int DEFCAP = 16;     // Default table capacity
+
+    protected BSTInterface<T> tree;     // Tree holding the elements in order
+    protected Function<T, K> keyOf;     // Returns the key of an element
+    protected T[] table;                // Contains one element for each key, or null in empty slots
+    protected int[] hashes;             // Contains the spread hash code of the key of each element in table
+    protected int[] counts;             // Contains the number of elements of the tree with the key of each slot
+    protected int numKeys = 0;          // Number of occupied slots
+
+    // Creates a hash front for tree, which may already hold elements, using keyOf to find the key of an element.
+    // The tree must only be changed through this wrapper from now on.
+    public HashFrontBST(BSTInterface<T> tree, Function<T, K> keyOf) {
+        this.tree = tree;
+        this.keyOf = keyOf;
+        int capacity = DEFCAP;
+        while (capacity < 2 * tree.size())
+            capacity *= 2;
+        allocate(capacity);
+        for (T element: tree)
+            insert(element);
+    }
+
+    // Replaces the table with an empty table of capacity slots. capacity must be a power of 2.
+    private void allocate(int capacity) {
+        table = (T[]) new Object[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+        numKeys = 0;
+    }
+
+    // Returns the hash code of key with its high bits mixed into the low bits the table index uses
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    // Returns the slot holding an element with key, or -1 if there is none.
+    private int find(K key, int hash) {
+        int mask = table.length - 1;
+        for (int slot = hash & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && key.equals(keyOf.apply(table[slot])))
+                return slot;
+        }
+        return -1;
+    }
+
+    // Counts one more element with the key of element, storing element if the key has no slot yet.
+    private void insert(T element) {
+        K key = keyOf.apply(element);
+        int hash = spread(key);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != null) {
+            if (hashes[slot] == hash && key.equals(keyOf.apply(table[slot]))) {
+                counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = element;
+        hashes[slot] = hash;
+        counts[slot] = 1;
+        numKeys++;
+        if (2 * numKeys > table.length)
+            grow();
+    }
+
+    // Doubles the table, moving every slot to its place in the new table
+    private void grow() {
+        T[] oldTable = table;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        allocate(2 * oldTable.length);
+        int mask = table.length - 1;
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (table[slot] != null)
+                    slot = (slot + 1) & mask;
+                table[slot] = oldTable[i];
+                hashes[slot] = oldHashes[i];
+                counts[slot] = oldCounts[i];
+                numKeys++;
+            }
+        }
+    }
+
+    // Empties slot and moves later elements of its probe run back, so that every element can still be found
+    // without tombstones.
+    private void delete(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (slot + 1) & mask; table[next] != null; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            // The element at next may fill the hole if its home slot is not between the hole and next
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hashes[hole] = hashes[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+        }
+        table[hole] = null;
+        numKeys--;
+    }
+
+    // Returns true if the tree is full. Otherwise returns false.
+    public boolean isFull() {
+        return tree.isFull();
+    }
+
+    // Returns true if the tree holds no elements. Otherwise returns false.
+    public boolean isEmpty() {
+        return tree.isEmpty();
+    }
+
+    // Returns the number of elements in the tree.
+    public int size() {
+        return tree.size();
+    }
+
+    // If the tree is empty, returns null. Otherwise returns the smallest element in the tree.
+    public T min() {
+        return tree.min();
+    }
+
+    // If the tree is empty, returns null. Otherwise returns the largest element in the tree.
+    public T max() {
+        return tree.max();
+    }
+
+    // Returns the smallest element e such that comp.compare(e, target) >= 0. If no such element exists, returns null.
+    public T ceiling(T target) {
+        return tree.ceiling(target);
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) <= 0. If no such element exists, returns null.
+    public T floor(T target) {
+        return tree.floor(target);
+    }
+
+    // Returns the smallest element e such that comp.compare(e, target) > 0. If no such element exists, returns null.
+    public T higher(T target) {
+        return tree.higher(target);
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) < 0. If no such element exists, returns null.
+    public T lower(T target) {
+        return tree.lower(target);
+    }
+
+    // Returns true if the tree contains an element e such that comp.compare(target, e) == 0. Otherwise returns false.
+    public boolean contains(T target) {
+        return get(target) != null;
+    }
+
+    // Returns an element e such that comp.compare(target, e) == 0. If no such element exists, returns null.
+    // Looks in the table only.
+    public T get(T target) {
+        K key = keyOf.apply(target);
+        int slot = find(key, spread(key));
+        if (slot == -1)
+            return null;
+        return table[slot];
+    }
+
+    // Adds element to the tree and the table. Returns true if the tree added it, otherwise returns false.
+    public boolean add(T element) {
+        if (!tree.add(element))
+            return false;
+        insert(element);
+        return true;
+    }
+
+    // Returns an element e such that comp.compare(key, e) == 0. If no such e exists, adds supplier.get() to the tree
+    // and returns it. A hit is found in the table without searching the tree.
+    public T getOrAdd(T key, Supplier<? extends T> supplier) {
+        T element = get(key);
+        if (element == null) {
+            element = tree.getOrAdd(key, supplier);
+            insert(element);
+        }
+        return element;
+    }
+
+    // Removes an element e such that comp.compare(target, e) == 0 from the tree and returns true.
+    // If no such element exists, returns false.
+    public boolean remove(T target) {
+        if (!tree.remove(target))
+            return false;
+        K key = keyOf.apply(target);
+        int slot = find(key, spread(key));
+        if (--counts[slot] == 0)
+            delete(slot);
+        else
+            table[slot] = tree.get(target);     // The tree may have removed the element the table held
+        return true;
+    }
+
+    // Creates and returns an Iterator providing an inorder traversal of the elements e such that
+    // comp.compare(low, e) <= 0 and comp.compare(e, high) <= 0.
+    public Iterator<T> rangeIterator(T low, T high) {
+        return tree.rangeIterator(low, high);
+    }
+
+    // Creates and returns an Iterator providing a traversal of the tree in the order indicated by the argument.
+    // None of the iterators support remove, so the table cannot get out of step with the tree.
+    public Iterator<T> getIterator(BSTInterface.Traversal orderType) {
+        return tree.getIterator(orderType);
+    }
+
+    // Creates and returns the snapshot iterator of the tree, which may avoid copying the elements.
+    public Iterator<T> getSnapshotIterator(BSTInterface.Traversal orderType) {
+        return tree.getSnapshotIterator(orderType);
+    }
+
+    // InOrder is the default, "natural" order.
+    public Iterator<T> iterator() {
+        return tree.iterator();
+    }
+
+    // Returns the spliterator of the tree, which may split better than the default.
+    public Spliterator<T> spliterator() {
+        return tree.spliterator();
+    }
+
+    // Prints a graphical representation of the tree.
+    public void printTree() {
+        tree.printTree();
+    }
+
+    // Returns true if the tree is balanced, otherwise false
+    public boolean isBalanced() {
+        return tree.isBalanced();
+    }
+
+    // Rebalances the tree. The table holds the same elements, so it is left as it is.
+    public void rebalance() {
+        tree.rebalance();
+    }
+}
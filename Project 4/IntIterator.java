@@ -0,0 +1,9 @@
+// Interface for an iterator over int values, returning them without boxing.
+public interface IntIterator {
+    // Returns true if the iteration has more values; otherwise returns false.
+    boolean hasNext();
+
+    // Returns the next value in the iteration.
+    // Throws IndexOutOfBoundsException if the iteration has no more values.
+    int next();
+}
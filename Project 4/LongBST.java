@@ -0,0 +1,244 @@
+import java.util.*; // Arrays, NoSuchElementException
+
+// A binary search tree of long keys that stores them without boxing.
+// Node i keeps its key in keys[i] and the indices of its children in links[2 * i] (left) and links[2 * i + 1] (right),
+// so a node takes 16 bytes instead of a BSTNode and a Long, and keys are compared with the long operators.
+// Indices of removed nodes are kept on a free list linked through their left links. The arrays double when full.
+// Like the BSTInterface trees, duplicate keys are allowed.
+public class LongBST {
+    protected static final int DEFCAP = 16;     // Default tree capacity
+    protected static final int NUL = -1;        // Variable for invalid index
+
+    protected long[] keys;              // Contains the key of each node
+    protected int[] links;              // Contains the left and right child indices of each node
+    protected int root = NUL;           // Root node
+    protected int numElements = 0;      // Number of keys in the tree
+    protected int nextUnused = 0;       // Indices from nextUnused on have never been used
+    protected int free = NUL;           // First index of the free list
+
+    // Default constructor
+    public LongBST() {
+        this(DEFCAP);
+    }
+
+    // Constructor with custom capacity
+    public LongBST(int customCap) {
+        customCap = Math.max(customCap, 1);
+        keys = new long[customCap];
+        links = new int[2 * customCap];
+    }
+
+    // Returns true if the tree holds no keys. Otherwise returns false.
+    public boolean isEmpty() {
+        return numElements == 0;
+    }
+
+    // Returns the number of keys in the tree.
+    public int size() {
+        return numElements;
+    }
+
+    // Takes an index off the free list, or the next unused index, doubling the arrays if they are full.
+    // Stores key there as a node without children and returns the index.
+    private int newNode(long key) {
+        int node;
+        if (free != NUL) {
+            node = free;
+            free = links[2 * node];
+        }
+        else {
+            if (nextUnused == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * keys.length);
+                links = Arrays.copyOf(links, 2 * links.length);
+            }
+            node = nextUnused++;
+        }
+        keys[node] = key;
+        links[2 * node] = NUL;
+        links[2 * node + 1] = NUL;
+        return node;
+    }
+
+    // Adds key to the tree. Returns true since the tree is never full.
+    public boolean add(long key) {
+        int node = newNode(key);
+        numElements++;
+        if (root == NUL) {
+            root = node;
+            return true;
+        }
+        int current = root;
+        while (true) {
+            int link;
+            if (key <= keys[current])
+                link = 2 * current;         // Go left
+            else
+                link = 2 * current + 1;     // Go right
+            if (links[link] == NUL) {
+                links[link] = node;
+                return true;
+            }
+            current = links[link];
+        }
+    }
+
+    // Returns true if the tree contains key. Otherwise returns false.
+    public boolean contains(long key) {
+        int node = root;
+        while (node != NUL) {
+            long nodeKey = keys[node];
+            if (key < nodeKey)
+                node = links[2 * node];
+            else if (key > nodeKey)
+                node = links[2 * node + 1];
+            else
+                return true;
+        }
+        return false;
+    }
+
+    // Removes one copy of key from the tree and returns true. If the tree does not contain key, returns false.
+    public boolean remove(long key) {
+        int parent = NUL;
+        int node = root;
+        while (node != NUL && keys[node] != key) {
+            parent = node;
+            if (key < keys[node])
+                node = links[2 * node];
+            else
+                node = links[2 * node + 1];
+        }
+        if (node == NUL)
+            return false;
+
+        if (links[2 * node] != NUL && links[2 * node + 1] != NUL) {
+            // Two children: move the key of the predecessor here and remove the predecessor, which has no right child
+            parent = node;
+            int pred = links[2 * node];
+            while (links[2 * pred + 1] != NUL) {
+                parent = pred;
+                pred = links[2 * pred + 1];
+            }
+            keys[node] = keys[pred];
+            node = pred;
+        }
+
+        // node has at most one child, which takes its place
+        int child = links[2 * node];
+        if (child == NUL)
+            child = links[2 * node + 1];
+        if (parent == NUL)
+            root = child;
+        else if (links[2 * parent] == node)
+            links[2 * parent] = child;
+        else
+            links[2 * parent + 1] = child;
+        links[2 * node] = free;
+        free = node;
+        numElements--;
+        return true;
+    }
+
+    // Returns the smallest key in the tree.
+    // Throws NoSuchElementException if the tree is empty.
+    public long min() {
+        if (root == NUL)
+            throw new NoSuchElementException("Min attempted on an empty tree.");
+        int node = root;
+        while (links[2 * node] != NUL)
+            node = links[2 * node];
+        return keys[node];
+    }
+
+    // Returns the largest key in the tree.
+    // Throws NoSuchElementException if the tree is empty.
+    public long max() {
+        if (root == NUL)
+            throw new NoSuchElementException("Max attempted on an empty tree.");
+        int node = root;
+        while (links[2 * node + 1] != NUL)
+            node = links[2 * node + 1];
+        return keys[node];
+    }
+
+    // Creates and returns an iterator over the keys in ascending order.
+    // The tree must not be changed while the iterator is in use.
+    public LongIterator iterator() {
+        return new KeyIterator(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Creates and returns an iterator over the keys k such that low <= k <= high, in ascending order.
+    // The tree must not be changed while the iterator is in use.
+    public LongIterator rangeIterator(long low, long high) {
+        return new KeyIterator(low, high);
+    }
+
+    // Walks the keys between low and high lazily.
+    // The stack holds the nodes not less than low whose key and right subtree remain, smallest on top.
+    private class KeyIterator implements LongIterator {
+        private final long high;
+        private int[] stack = new int[16];  // Indices of nodes, grows when needed
+        private int top = 0;                // Number of indices in stack
+
+        KeyIterator(long low, long high) {
+            this.high = high;
+            int node = root;
+            while (node != NUL) {
+                if (low <= keys[node]) {
+                    push(node);                     // node and its right subtree are in range
+                    node = links[2 * node];
+                }
+                else
+                    node = links[2 * node + 1];     // node and its left subtree are too small
+            }
+        }
+
+        // Pushes node onto the stack
+        private void push(int node) {
+            if (top == stack.length)
+                stack = Arrays.copyOf(stack, 2 * top);
+            stack[top++] = node;
+        }
+
+        // Returns true if the iteration has more keys; otherwise returns false.
+        public boolean hasNext() {
+            if (top > 0 && keys[stack[top - 1]] > high)
+                top = 0;    // Every remaining key is too large
+            return top > 0;
+        }
+
+        // Returns the next key in the iteration.
+        // Throws IndexOutOfBoundsException if the iteration has no more keys.
+        public long next() {
+            if (!hasNext())
+                throw new IndexOutOfBoundsException("Illegal invocation of next in LongBST iterator.\n");
+            int node = stack[--top];
+            for (int next = links[2 * node + 1]; next != NUL; next = links[2 * next])
+                push(next);
+            return keys[node];
+        }
+    }
+
+    // Restructures the tree into a balanced tree whose nodes take indices 0 to size() - 1 in ascending order,
+    // which also empties the free list.
+    public void rebalance() {
+        long[] sorted = new long[numElements];
+        LongIterator iter = iterator();
+        for (int i = 0; i < numElements; i++)
+            sorted[i] = iter.next();
+        System.arraycopy(sorted, 0, keys, 0, numElements);
+        root = linkSorted(0, numElements - 1);
+        nextUnused = numElements;
+        free = NUL;
+    }
+
+    // Links the nodes at indices low to high into a balanced tree and returns its root.
+    private int linkSorted(int low, int high) {
+        if (low > high)
+            return NUL;
+        int mid = (low + high) >>> 1;
+        links[2 * mid] = linkSorted(low, mid - 1);
+        links[2 * mid + 1] = linkSorted(mid + 1, high);
+        return mid;
+    }
+}
@@ -1,6 +1,9 @@
-import java.util.*; // Iterator, Comparator
+import java.util.*; // Iterator, Comparator, Arrays, Spliterator
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 // Implements BSTInterface using an adjacency matrix.
+// The matrix can be replaced by other RelationStorage types, see Storage.
 // Nodes are represented by indices.
 public class MatrixBST<T> implements BSTInterface<T> {
     // Enumeration for relations in the adjacency matrix
@@ -12,8 +15,19 @@ public class MatrixBST<T> implements BSTInterface<T> {
         Relation(char RELATION) { this.RELATION = RELATION; }
     }
 
-    protected final int DEFCAP = 3000;  // Default tree capacity
-    protected int cap;                  // Tree capacity
+    // Used to specify how the relations between nodes are stored.
+    // Matrix keeps a cap x cap matrix of Relations, PackedMatrix keeps the same matrix using 2 bits per cell,
+    // SparseMatrix keeps only the cells that are not NONE in a hash table,
+    // ChildIndex keeps the left, right and parent index of each node.
+    public enum Storage {Matrix, PackedMatrix, SparseMatrix, ChildIndex};
+
+    // Used to specify the order compact() places nodes in.
+    // BreadthFirst places the nodes level by level. VanEmdeBoas places the top half of the levels first,
+    // followed by each subtree hanging below them, using the same layout recursively.
+    public enum Layout {BreadthFirst, VanEmdeBoas};
+
+    protected static final int DEFCAP = 3000;   // Default tree capacity
+    protected int cap;                          // Tree capacity, grows as elements are added
 
     protected final int NUL = -1;       // Variable for invalid index
 
@@ -23,217 +37,271 @@ public class MatrixBST<T> implements BSTInterface<T> {
     protected int numElements = 0;      // Represents number of elements in the tree
 
     protected T[] data;                 // Contains the data of a node
-    protected Relation[][] matrix;      // Contains the relations of a node (rows are parents, columns are children)
+    protected Storage storage;              // Type of relation storage used
+    protected RelationStorage relations;    // Contains the relations of a node (parents and children)
+
+    protected int[] freeSlots;          // Stack of indices released by removals
+    protected int numFree = 0;          // Number of indices in freeSlots
+    protected int nextUnused = 0;       // Indices from nextUnused to cap - 1 have never been used
 
     // Default constructor
     public MatrixBST() {
-        cap = DEFCAP;
-        data = (T[]) new Object[cap];
-        matrix = new Relation[cap][cap];
-        for (int i = 0; i < cap; i++) {
-            for (int j = 0; j < cap; j++) {
-                matrix[i][j] = Relation.NONE;   // Initialize all relations to none
-            }
-        }
-        comp = new Comparator<T>() {
-            public int compare(T element1, T element2) {
-                return ((Comparable)element1).compareTo(element2);
-            }
-        };
+        this(DEFCAP, Storage.Matrix);
     }
 
     // Constructor with custom capacity
     public MatrixBST(int customCap) {
-        cap = customCap;
-        data = (T[]) new Object[cap];
-        matrix = new Relation[cap][cap];
-        for (int i = 0; i < cap; i++) {
-            for (int j = 0; j < cap; j++) {
-                matrix[i][j] = Relation.NONE; // Initialize all relations to none
-            }
-        }
-        comp = new Comparator<T>() {
-            public int compare(T element1, T element2) {
-                return ((Comparable)element1).compareTo(element2);
-            }
-        };
+        this(customCap, Storage.Matrix);
+    }
+
+    // Constructor with custom relation storage
+    public MatrixBST(Storage storage) {
+        this(DEFCAP, storage);
+    }
+
+    // Constructor with custom capacity and custom relation storage
+    public MatrixBST(int customCap, Storage storage) {
+        this(customCap, naturalOrder(), storage);
     }
 
     // Constructor with custom comparator
     public MatrixBST(Comparator<T> comp) {
-        cap = DEFCAP;
-        data = (T[]) new Object[cap];
-        matrix = new Relation[cap][cap];
-        for (int i = 0; i < cap; i++) {
-            for (int j = 0; j < cap; j++) {
-                matrix[i][j] = Relation.NONE; // Initialize all relations to none
-            }
-        }
-        this.comp = comp;
+        this(DEFCAP, comp, Storage.Matrix);
     }
 
     // Constructor with custom capacity and custom comparator
     public MatrixBST(int customCap, Comparator<T> comp) {
+        this(customCap, comp, Storage.Matrix);
+    }
+
+    // Constructor with custom capacity, custom comparator and custom relation storage
+    public MatrixBST(int customCap, Comparator<T> comp, Storage storage) {
         cap = customCap;
-        data = (T[]) new Object[customCap];
-        matrix = new Relation[customCap][customCap];
-        for (int i = 0; i < cap; i++) {
-            for (int j = 0; j < cap; j++) {
-                matrix[i][j] = Relation.NONE; // Initialize all relations to none
-            }
-        }
+        data = (T[]) new Object[cap];
+        this.storage = storage;
+        relations = newStorage(storage, cap);
+        freeSlots = new int[cap];
         this.comp = comp;
     }
 
-    // Adds an element to the tree at its appropriate location
-    // Returns true if added successfully, otherwise false
-    public boolean add(T element) {
-        if (isFull())
-            return false; // Array is full
-        else {
-            if (root == NUL) { // Tree is empty, add at root
-                root = 0;
-                data[root] = element;
-                numElements++;
-            }
-            else // Tree is not empty, add at appropriate location
-                recAdd(element, root);
-            return true; // Added successfully
-        }
+    // Creates and returns a balanced tree holding elements, using the natural order of elements.
+    // Precondition: T implements Comparable and elements is sorted in natural order
+    public static <T> MatrixBST<T> buildFromSorted(T[] elements, Storage storage) {
+        return buildFromSorted(Arrays.asList(elements).iterator(), elements.length, storage);
     }
 
-    // Finds the correct location to insert element, updating data and matrix as needed
-    public void recAdd(T element, int node) {
-        if (comp.compare(element, data[node]) <= 0) {   // Element is less than current node
-            int nextNode = findLeft(node);  // Check for a left child
-            if (nextNode != NUL)
-                // Child exists, add in left subtree
-                recAdd(element, nextNode);
-            else {
-                // Left is free, add there
-                int index = findFree(); // Find a free index in the array
-                data[index] = element;
-                matrix[node][index] = Relation.L; // Update relation
-                numElements++;
+    // Creates and returns a balanced tree holding the next n elements, using the natural order of elements.
+    // Precondition: T implements Comparable and elements yields at least n elements in natural order
+    public static <T> MatrixBST<T> buildFromSorted(Iterator<T> elements, int n, Storage storage) {
+        return buildFromSorted(elements, n, MatrixBST.<T>naturalOrder(), storage);
+    }
+
+    // Creates and returns a balanced tree holding the next n elements, using Comparator comp for order of elements.
+    // The capacity is n, and the elements take indices 0 to n - 1 in order.
+    // Precondition: elements yields at least n elements in the order of comp
+    public static <T> MatrixBST<T> buildFromSorted(Iterator<T> elements, int n, Comparator<T> comp, Storage storage) {
+        MatrixBST<T> tree = new MatrixBST<T>(Math.max(n, 1), comp, storage);
+        tree.root = tree.linkSorted(elements, n);
+        tree.numElements = n;
+        return tree;
+    }
+
+    // Stores the next n elements at the next unused indices and links them into a balanced tree. Returns the root.
+    // The left subtree is built first, so the nodes take the elements in inorder.
+    // No comparisons are made and each element is read once, taking O(n) time.
+    private int linkSorted(Iterator<T> elements, int n) {
+        if (n == 0)
+            return NUL;
+        int leftSize = (n - 1) / 2;
+        int leftNode = linkSorted(elements, leftSize);
+        int node = nextUnused++;
+        data[node] = elements.next();
+        int rightNode = linkSorted(elements, n - 1 - leftSize);
+        if (leftNode != NUL)
+            relations.setLeft(node, leftNode);
+        if (rightNode != NUL)
+            relations.setRight(node, rightNode);
+        return node;
+    }
+
+    // Returns a comparator that uses the natural order of elements.
+    // Precondition: T implements Comparable
+    private static <T> Comparator<T> naturalOrder() {
+        return new Comparator<T>() {
+            public int compare(T element1, T element2) {
+                return ((Comparable)element1).compareTo(element2);
             }
+        };
+    }
+
+    // Creates the relation storage for the given storage type and capacity
+    protected RelationStorage newStorage(Storage storage, int capacity) {
+        if (storage == Storage.ChildIndex)
+            return new ChildIndexStorage(capacity);
+        else if (storage == Storage.PackedMatrix)
+            return new PackedRelationMatrix(capacity);
+        else if (storage == Storage.SparseMatrix)
+            return new SparseRelationMatrix(capacity);
+        else
+            return new EnumRelationMatrix(capacity);
+    }
+
+    // Adds an element to the tree at its appropriate location, growing the capacity if needed
+    // Returns true since the tree is never full
+    // Walks down from the root in a loop, so a tree of any height can be added to.
+    public boolean add(T element) {
+        int parent = NUL, node = root;
+        boolean goLeft = false;     // True if element goes in the left subtree of parent
+        while (node != NUL) {
+            parent = node;
+            goLeft = comp.compare(element, data[node]) <= 0;
+            if (goLeft)
+                node = findLeft(node);  // Element is less than or equal to current node
+            else
+                node = findRight(node); // Element is greater than current node
         }
-        else {  // Element is greater than current node
-            int nextNode = findRight(node); // Check for a right child
-            if (nextNode != NUL)
-                // Child exists, add in right subtree
-                recAdd(element, nextNode);
-            else {
-                // Right is free, add there
-                int index = findFree(); // Find a free index in the array
-                data[index] = element;
-                matrix[node][index] = Relation.R; // Update relation
-                numElements++;
-            }
+
+        ensureCapacity(numElements + 1);    // Indices are kept, so parent is still valid
+        int index = findFree();     // Find a free index in the array
+        data[index] = element;
+        if (parent == NUL)
+            root = index;           // Tree is empty, add at root
+        else if (goLeft)
+            relations.setLeft(parent, index);
+        else
+            relations.setRight(parent, index);
+        numElements++;
+        return true; // Added successfully
+    }
+
+    // Makes sure the tree can hold at least minCap elements without growing again.
+    // The capacity at least doubles when it grows, so a series of adds takes amortized constant time to grow.
+    // Indices of existing nodes are not changed.
+    public void ensureCapacity(int minCap) {
+        if (minCap > cap)
+            resize(Math.max(minCap, cap * 2));
+    }
+
+    // Shrinks the capacity to one past the highest index in use.
+    // Indices of existing nodes are not changed, so unused indices below that one are kept.
+    public void trimToSize() {
+        int newCap = nextUnused;
+        while (newCap > 0 && data[newCap - 1] == null)
+            newCap--;
+
+        // Forget released indices that are being trimmed off
+        int kept = 0;
+        for (int i = 0; i < numFree; i++) {
+            if (freeSlots[i] < newCap)
+                freeSlots[kept++] = freeSlots[i];
         }
+        numFree = kept;
+        nextUnused = newCap;
+        resize(newCap);
+    }
+
+    // Returns the number of elements the tree can hold before it grows.
+    public int capacity() {
+        return cap;
+    }
+
+    // Changes the capacity of the data array, free index stack and relation storage to newCap.
+    // Precondition: no index at or above newCap is in use.
+    private void resize(int newCap) {
+        data = Arrays.copyOf(data, newCap);
+        freeSlots = Arrays.copyOf(freeSlots, newCap);
+        relations.resize(newCap);
+        cap = newCap;
     }
 
-    // Find the first free index (node) in the data array
-    // Preconditions: isFull() has been used elsewhere and returned false
-    // Postconditions: returns the index of the first free index in the array
+    // Find a free index (node) in the data array in constant time
+    // Preconditions: ensureCapacity() has been used elsewhere to make room for one more element
+    // Postconditions: returns the most recently released index, or the lowest never used index if none were released
     //                 returns NUL (which is -1) if not found (which should never happen if preconditions are met)
     private int findFree() {
-        // Loop and find free index
-        for (int i = 0; i < cap; i++) {
-            if (data[i] == null) {
-                return i;
-            }
-        }
+        if (numFree > 0)
+            return freeSlots[--numFree];    // Reuse a released index
+        if (nextUnused < cap)
+            return nextUnused++;            // Take a never used index
         return NUL;
     }
 
+    // Removes the data at index node and makes the index available to findFree()
+    private void releaseSlot(int node) {
+        data[node] = null;
+        freeSlots[numFree++] = node;
+    }
+
     // Returns info i from node of this BST where comp.compare(target, i) == 0.
     // If no such node exists, returns null.
     public T get(T target) {
-        if (isEmpty())
-            return null;
-        return recGet(target, root);
-    }
-
-    // Returns info i from the subtree rooted at node such that comp.compare(target, i) == 0.
-    // If no such info exists, returns null.
-    private T recGet(T target, int node) {
-        if (comp.compare(target, data[node]) < 0) {      // If target is less than current node info
-            int nextNode = findLeft(node);                  // Check for a left child
-            if (nextNode != NUL)                            // Left child exists
-                return recGet(target, nextNode);               // Get from left subtree
-            else                                            // No left child
-                return null;                                   // Target was not found
-        }
-        else if (comp.compare(target, data[node]) > 0) { // If target is greater than current node info
-            int nextNode = findRight(node);                 // Check for right child
-            if (nextNode != NUL)                            // Right child exists
-                return recGet(target, nextNode);               // Get from right subtree
-            else                                            // No right child
-                return null;                                   // Target was not found
-        }
-        else // Target is equal to current node info
-            return data[node];
+        int node = find(target);
+        if (node == NUL)
+            return null;    // Target was not found
+        return data[node];
     }
 
-    // Returns true if this BST contains a node with info i such that comp.compare(target, i) == 0.
-    // Otherwise, returns false.
-    public boolean contains(T target) {
-        if (isEmpty())
-            return false;
-        return recContains(target, root);
+    // Returns the index of a node with info i such that comp.compare(target, i) == 0, or NUL if there is none.
+    // Walks down from the root in a loop, so a tree of any height can be searched.
+    private int find(T target) {
+        int node = root;
+        while (node != NUL) {
+            int result = comp.compare(target, data[node]);
+            if (result < 0)
+                node = findLeft(node);  // Target is less than current node info
+            else if (result > 0)
+                node = findRight(node); // Target is greater than current node info
+            else
+                return node;
+        }
+        return NUL;
     }
 
-    // Returns true if the subtree rooted at node contains info i such that comp.compare(target, i) == 0.
-    // Otherwise, returns false.
-    private boolean recContains(T target, int node) {
-        if (comp.compare(target, data[node]) < 0) {      // If target is less than current node data
-            int nextNode = findLeft(node);                  // Check for a left child
-            if (nextNode != NUL)                            // Left child exists
-                return recContains(target, nextNode);          // Search left subtree
-            else                                            // No left child
-                return false;                                  // Target not found    
+    // Returns info i from node of this BST where comp.compare(key, i) == 0.
+    // If no such node exists, adds supplier.get() where the search ended and returns it, growing the capacity if needed.
+    // Only one descent is made, and the supplier is not called when key is found.
+    public T getOrAdd(T key, Supplier<? extends T> supplier) {
+        int parent = NUL, node = root, result = 0;
+        while (node != NUL) {
+            result = comp.compare(key, data[node]);
+            if (result == 0)
+                return data[node];
+            parent = node;
+            if (result < 0)
+                node = findLeft(node);
+            else
+                node = findRight(node);
         }
-        else if (comp.compare(target, data[node]) > 0) { // If target is less than current node data
-            int nextNode = findRight(node);                 // Check for a right child
-            if (nextNode != NUL)                            // Right child exists
-                return recContains(target, nextNode);          // Search right subtree
-            else                                            // No right child
-                return false;                                  // Target not found
-        }
-        else // Target is equal to current node info
-            return true;
+
+        T element = supplier.get();
+        ensureCapacity(numElements + 1);    // Indices are kept, so parent is still valid
+        int index = findFree();
+        data[index] = element;
+        if (parent == NUL)
+            root = index;
+        else if (result < 0)
+            relations.setLeft(parent, index);
+        else
+            relations.setRight(parent, index);
+        numElements++;
+        return element;
+    }
+
+    // Returns true if this BST contains a node with info i such that comp.compare(target, i) == 0.
+    // Otherwise, returns false.
+    public boolean contains(T target) {
+        return find(target) != NUL;
     }
 
     // Removes a node with info i from tree such that comp.compare(target,i) == 0 and returns true.
     // If no such node exists, returns false.
     public boolean remove(T target) {
-        if (isEmpty())
-            return false;
-        return recRemove(target, root);
-    }
-
-    // Removes element with info i from tree rooted at node such that comp.compare(target, i) == 0 and returns true.
-    // If no such node exists, returns false. 
-    private boolean recRemove(T target, int node) {
-        if (comp.compare(target, data[node]) < 0) {  // If target is less than current node data
-            int nextNode = findLeft(node);              // Check for a left child
-            if (nextNode != NUL)                        // Left child exists
-                return recRemove(target, nextNode);        // Search left subtree
-            else                                        // No left child
-                return false;                              // Target not found    
-        }
-        else if (comp.compare(target, data[node]) > 0) { // If target is less than current node data
-            int nextNode = findRight(node);                 // Check for a right child
-            if (nextNode != NUL)                            // Right child exists
-                return recRemove(target, nextNode);            // Search right subtree
-            else                                            // No right child
-                return false;                                  // Target not found
-        }
-        else { // Target is equal to current node info
-            removeNode(node);
-            numElements--;
-            return true;
-        }
+        int node = find(target);
+        if (node == NUL)
+            return false;   // Target not found
+        removeNode(node);
+        numElements--;
+        return true;
     }
 
     // Removes the specified node from the tree, rearranging relations if needed
@@ -245,11 +313,8 @@ public class MatrixBST<T> implements BSTInterface<T> {
             if (numElements == 1) {
                 root = NUL; // Removing only node, remove root index
             }
-            for (int i = 0; i < cap; i++) { // Remove parent and child relations of node
-                matrix[node][i] = Relation.NONE;
-                matrix[i][node] = Relation.NONE;
-            }
-            data[node] = null;  // Remove node data
+            relations.clearNode(node);  // Remove parent and child relations of node
+            releaseSlot(node);  // Remove node data
         }
         else if (leftNode == NUL) {
             // No left child, replace with right child
@@ -279,7 +344,6 @@ public class MatrixBST<T> implements BSTInterface<T> {
             }
             else {
                 // Predecessor has no children, remove it
-                data[predecessor] = null;
                 removeNode(predecessor);
             }
         }
@@ -288,17 +352,13 @@ public class MatrixBST<T> implements BSTInterface<T> {
     // Copies the data and relations of fromNode to toNode and removes the data and all relations of fromNode
     private void overwriteNode(int toNode, int fromNode) {
         data[toNode] = data[fromNode];
-        data[fromNode] = null;
-        for (int i = 0; i < cap; i++) {
-            matrix[toNode][i] = matrix[fromNode][i];    // Copy relations
-            matrix[fromNode][i] = Relation.NONE;    // Remove relations of old node
-            matrix[i][fromNode] = Relation.NONE;    // Remove parents of old node for safety
-        }
+        releaseSlot(fromNode);
+        relations.moveNode(toNode, fromNode);   // Copy relations and remove relations of old node
     }
 
-    // Returns true if the data array is full, otherwise false.
+    // Returns false; the data array grows when it runs out of room.
     public boolean isFull() {
-        return numElements == cap;
+        return false;
     }
 
     // Returns true if the data array is empty, or if there is no root, or if there are no elements. Otherwise returns false.
@@ -316,8 +376,8 @@ public class MatrixBST<T> implements BSTInterface<T> {
         if (isEmpty())
             return null;
         else {
-            int nextNode = 0;
-            int node = 0;
+            int nextNode = root;
+            int node = root;
             while (nextNode != NUL) {
                 node = nextNode;
                 nextNode = findLeft(node);
@@ -331,8 +391,8 @@ public class MatrixBST<T> implements BSTInterface<T> {
         if (isEmpty())
             return null;
         else {
-            int nextNode = 0;
-            int node = 0;
+            int nextNode = root;
+            int node = root;
             while (nextNode != NUL) {
                 node = nextNode;
                 nextNode = findRight(node);
@@ -341,81 +401,218 @@ public class MatrixBST<T> implements BSTInterface<T> {
         }
     }
 
+    // Returns the smallest element e such that comp.compare(e, target) >= 0. If no such element exists, returns null.
+    public T ceiling(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, data[node]) <= 0) {
+                result = data[node];        // Candidate, look for a smaller one
+                node = findLeft(node);
+            }
+            else
+                node = findRight(node);
+        }
+        return result;
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) <= 0. If no such element exists, returns null.
+    public T floor(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, data[node]) >= 0) {
+                result = data[node];        // Candidate, look for a larger one
+                node = findRight(node);
+            }
+            else
+                node = findLeft(node);
+        }
+        return result;
+    }
+
+    // Returns the smallest element e such that comp.compare(e, target) > 0. If no such element exists, returns null.
+    public T higher(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, data[node]) < 0) {
+                result = data[node];        // Candidate, look for a smaller one
+                node = findLeft(node);
+            }
+            else
+                node = findRight(node);
+        }
+        return result;
+    }
+
+    // Returns the largest element e such that comp.compare(e, target) < 0. If no such element exists, returns null.
+    public T lower(T target) {
+        T result = null;
+        int node = root;
+        while (node != NUL) {
+            if (comp.compare(target, data[node]) > 0) {
+                result = data[node];        // Candidate, look for a larger one
+                node = findRight(node);
+            }
+            else
+                node = findLeft(node);
+        }
+        return result;
+    }
+
     // Returns the index of the left child if found. Otherwise returns NUL.
     private int findLeft(int row) {
-        for (int column = 0; column < cap; column++) {
-            if (matrix[row][column] == Relation.L)
-                return column;
-        }
-        return NUL;
+        return relations.findLeft(row);
     }
 
     // Returns the index of the right child if found. Otherwise returns NUL.
     private int findRight(int row) {
-        for (int column = 0; column < cap; column++) {
-            if (matrix[row][column] == Relation.R)
-                return column;
-        }
-        return NUL;
+        return relations.findRight(row);
     }
 
-    // Creates and returns an Iterator providing a traversal of a "snapshot" of the current tree in the order indicated by the argument.
+    // Creates and returns an Iterator providing a traversal of the current tree in the order indicated by the argument.
     // Supports Preorder, Postorder, and Inorder traversal.
+    // The iterator keeps a stack of at most height indices and finds each element when next is called,
+    // so the tree must not be changed while it is in use; use getSnapshotIterator for that.
     public Iterator<T> getIterator(BSTInterface.Traversal orderType) {
-        final LinkedQueue<T> infoQueue = new LinkedQueue<T>();
-        if (orderType == BSTInterface.Traversal.Preorder)
-          preOrder(root, infoQueue);
-        else if (orderType == BSTInterface.Traversal.Inorder)
-          inOrder(root, infoQueue);
-        else if (orderType == BSTInterface.Traversal.Postorder)
-          postOrder(root, infoQueue);
-    
-        return new Iterator<T>() {
-            // Returns true if the iteration has more elements; otherwise returns false.
-            public boolean hasNext() {
-                return !infoQueue.isEmpty();
+        return new TreeIterator(orderType);
+    }
+
+    // Walks the tree lazily using an explicit stack of indices.
+    // Inorder: the stack holds the nodes whose data and right subtree remain.
+    // Preorder: the stack holds the roots of the subtrees that remain.
+    // Postorder: the stack holds the path from the root to the next node.
+    private class TreeIterator implements Iterator<T> {
+        private final BSTInterface.Traversal orderType;
+        private int[] stack = new int[16];  // Indices of nodes, grows when needed
+        private int top = 0;                // Number of indices in stack
+
+        TreeIterator(BSTInterface.Traversal orderType) {
+            this.orderType = orderType;
+            if (orderType == BSTInterface.Traversal.Inorder)
+                pushLeftPath(root);
+            else if (orderType == BSTInterface.Traversal.Preorder)
+                push(root);
+            else if (orderType == BSTInterface.Traversal.Postorder)
+                pushPostorderPath(root);
+        }
+
+        // Pushes node unless it is NUL
+        private void push(int node) {
+            if (node != NUL) {
+                if (top == stack.length)
+                    stack = Arrays.copyOf(stack, 2 * top);
+                stack[top++] = node;
             }
+        }
 
-            // Returns the next element in the iteration.
-            // Throws NoSuchElementException - if the iteration has no more elements
-            public T next() { 
-                if (!hasNext())
-                    throw new IndexOutOfBoundsException("Illegal invocation of next in BinarySearchTree iterator.\n");
-                return infoQueue.dequeue();
+        // Pushes node and all of its left descendants
+        private void pushLeftPath(int node) {
+            while (node != NUL) {
+                push(node);
+                node = findLeft(node);
             }
-        
-            // Throws UnsupportedOperationException.
-            // Not supported. Removal from snapshot iteration is meaningless.
-            public void remove() {
-                throw new UnsupportedOperationException("Unsupported remove attempted on BinarySearchTree iterator.\n");
+        }
+
+        // Pushes the path from node to the first node of its subtree in postorder, going left whenever possible and right otherwise
+        private void pushPostorderPath(int node) {
+            while (node != NUL) {
+                push(node);
+                int nextNode = findLeft(node);
+                node = (nextNode != NUL) ? nextNode : findRight(node);
             }
-        };
-    }
+        }
 
-    // Enqueues the elements from the subtree rooted at node into q in preOrder.
-    private void preOrder(int node, LinkedQueue<T> q) {
-        if (node != NUL && data[node] != null) {
-            q.enqueue(data[node]);
-            preOrder(findLeft(node), q);
-            preOrder(findRight(node), q);
+        // Returns true if the iteration has more elements; otherwise returns false.
+        public boolean hasNext() {
+            return top > 0;
         }
-    }
 
-    // Enqueues the elements from the subtree rooted at node into q in inOrder.
-    private void inOrder(int node, LinkedQueue<T> q) {
-        if (node != NUL && data[node] != null) {
-            inOrder(findLeft(node), q);
-            q.enqueue(data[node]);
-            inOrder(findRight(node), q);
+        // Returns the next element in the iteration.
+        // Throws NoSuchElementException - if the iteration has no more elements
+        public T next() {
+            if (!hasNext())
+                throw new IndexOutOfBoundsException("Illegal invocation of next in MatrixBST iterator.\n");
+            int node = stack[--top];
+            if (orderType == BSTInterface.Traversal.Inorder)
+                pushLeftPath(findRight(node));
+            else if (orderType == BSTInterface.Traversal.Preorder) {
+                push(findRight(node));
+                push(findLeft(node));
+            }
+            else if (top > 0) {
+                // Postorder: after a left child comes the parent's right subtree
+                int parent = stack[top - 1];
+                if (findLeft(parent) == node)
+                    pushPostorderPath(findRight(parent));
+            }
+            return data[node];
         }
+
+        // Throws UnsupportedOperationException.
+        // Not supported. Removal during iteration would invalidate the stack.
+        public void remove() {
+            throw new UnsupportedOperationException("Unsupported remove attempted on MatrixBST iterator.\n");
+        }
+    }
+
+    // Creates and returns an Iterator providing an inorder traversal of the elements e such that
+    // comp.compare(low, e) <= 0 and comp.compare(e, high) <= 0.
+    // Finding the first element takes time proportional to the height, and each later element constant amortized time.
+    public Iterator<T> rangeIterator(T low, T high) {
+        return new RangeIterator(low, high);
     }
-    
-    // Enqueues the elements from the subtree rooted at node into q in postOrder.
-    private void postOrder(int node, LinkedQueue<T> q) {
-        if (node != NUL && data[node] != null) {
-            postOrder(findLeft(node), q);
-            postOrder(findRight(node), q);
-            q.enqueue(data[node]);
+
+    // Walks the elements between low and high lazily.
+    // The stack holds the nodes not less than low whose data and right subtree remain, smallest on top.
+    private class RangeIterator implements Iterator<T> {
+        private final T high;
+        private int[] stack = new int[16];  // Indices of nodes, grows when needed
+        private int top = 0;                // Number of indices in stack
+
+        RangeIterator(T low, T high) {
+            this.high = high;
+            int node = root;
+            while (node != NUL) {
+                if (comp.compare(low, data[node]) <= 0) {
+                    push(node);                 // node and its right subtree are in range
+                    node = findLeft(node);
+                }
+                else
+                    node = findRight(node);     // node and its left subtree are too small
+            }
+        }
+
+        // Pushes node onto the stack
+        private void push(int node) {
+            if (top == stack.length)
+                stack = Arrays.copyOf(stack, 2 * top);
+            stack[top++] = node;
+        }
+
+        // Returns true if the iteration has more elements; otherwise returns false.
+        public boolean hasNext() {
+            if (top > 0 && comp.compare(data[stack[top - 1]], high) > 0)
+                top = 0;    // Every remaining element is too large
+            return top > 0;
+        }
+
+        // Returns the next element in the iteration.
+        // Throws NoSuchElementException - if the iteration has no more elements
+        public T next() {
+            if (!hasNext())
+                throw new IndexOutOfBoundsException("Illegal invocation of next in MatrixBST range iterator.\n");
+            int node = stack[--top];
+            for (int next = findRight(node); next != NUL; next = findLeft(next))
+                push(next);
+            return data[node];
+        }
+
+        // Throws UnsupportedOperationException.
+        // Not supported. Removal during iteration would invalidate the stack.
+        public void remove() {
+            throw new UnsupportedOperationException("Unsupported remove attempted on MatrixBST range iterator.\n");
         }
     }
 
@@ -424,6 +621,107 @@ public class MatrixBST<T> implements BSTInterface<T> {
         return getIterator(BSTInterface.Traversal.Inorder);
     }
 
+    // Creates and returns a Spliterator over the elements of the tree in inorder that splits by subtree.
+    // Nodes do not store the sizes of their subtrees, so the size is exact only until the first split;
+    // after that each part estimates half of the elements. The tree must not be changed while it is in use.
+    public Spliterator<T> spliterator() {
+        TreeSpliterator spliterator = new TreeSpliterator(numElements, true);
+        spliterator.push(root, true);
+        return spliterator;
+    }
+
+    // Keeps the parts of the tree that remain on a stack, the next part on top and the last part at the bottom.
+    // A part is either a whole subtree, or a single node whose subtrees are parts of their own.
+    private class TreeSpliterator implements Spliterator<T> {
+        private int[] stack = new int[16];              // Indices of the parts, grows when needed
+        private boolean[] whole = new boolean[16];      // True if stack[i] is a whole subtree
+        private int top = 0;                            // Number of parts in stack
+        private long estimate;                          // Estimated number of elements in the parts
+        private boolean sized;                          // True if estimate is exact
+
+        TreeSpliterator(long estimate, boolean sized) {
+            this.estimate = estimate;
+            this.sized = sized;
+        }
+
+        // Pushes node unless it is NUL
+        private void push(int node, boolean isWhole) {
+            if (node != NUL) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * top);
+                    whole = Arrays.copyOf(whole, 2 * top);
+                }
+                stack[top] = node;
+                whole[top++] = isWhole;
+            }
+        }
+
+        // Passes the next element to action and returns true. If no elements remain, returns false.
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (top > 0) {
+                int node = stack[--top];
+                if (whole[top]) {
+                    push(findRight(node), true);
+                    push(node, false);
+                    push(findLeft(node), true);
+                }
+                else {
+                    if (estimate > 0)
+                        estimate--;
+                    action.accept(data[node]);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Splits the last part into its left subtree, its node and its right subtree, keeps the right subtree and
+        // returns a Spliterator over every part before it. Returns null if a single element remains.
+        public Spliterator<T> trySplit() {
+            if (top > 0 && whole[0]) {
+                // Rebuild the stack with the last part expanded at the bottom
+                int[] oldStack = stack;
+                boolean[] oldWhole = whole;
+                int oldTop = top;
+                stack = new int[oldTop + 16];
+                whole = new boolean[oldTop + 16];
+                top = 0;
+                push(findRight(oldStack[0]), true);
+                push(oldStack[0], false);
+                push(findLeft(oldStack[0]), true);
+                for (int i = 1; i < oldTop; i++)
+                    push(oldStack[i], oldWhole[i]);
+            }
+            if (top < 2)
+                return null;
+
+            TreeSpliterator prefix = new TreeSpliterator(estimate / 2, false);
+            for (int i = 1; i < top; i++)
+                prefix.push(stack[i], whole[i]);
+            top = 1;
+            estimate -= prefix.estimate;
+            sized = false;
+            return prefix;
+        }
+
+        // Returns the number of elements that remain, or an estimate of it once the Spliterator has been split
+        public long estimateSize() {
+            return estimate;
+        }
+
+        public int characteristics() {
+            int characteristics = Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL;
+            if (sized)
+                characteristics |= Spliterator.SIZED;
+            return characteristics;
+        }
+
+        // Returns the comparator the elements are sorted by
+        public Comparator<? super T> getComparator() {
+            return comp;
+        }
+    }
+
     // Prints a graphical representation of the tree.
     // Does not work for all data types.
     public void printTree() {
@@ -468,4 +766,156 @@ public class MatrixBST<T> implements BSTInterface<T> {
 
         return 1 + Math.max(leftHeight, rightHeight);  // Return height if balanced
     }
+
+    // Restructures the tree into a balanced tree by rewriting the relations between the existing nodes.
+    // Elements stay at their indices and no element is compared or added again.
+    public void rebalance() {
+        int[] nodes = new int[numElements];     // Indices of the nodes in inorder
+        collectInOrder(nodes);
+        for (int node: nodes) {
+            relations.clearNode(node);          // Remove all relations
+        }
+        root = linkBalanced(nodes, 0, numElements - 1);
+    }
+
+    // Moves the nodes to indices 0 to size() - 1 in the order given by layout, so that searches from the root
+    // read the data and relations from nearby memory. The shape of the tree does not change.
+    public void compact(Layout layout) {
+        int[] nodes = new int[numElements];     // Old indices of the nodes in their new order
+        if (layout == Layout.BreadthFirst)
+            collectBreadthFirst(nodes);
+        else
+            collectVanEmdeBoas(root, height(root), nodes, 0);
+
+        int[] newIndex = new int[cap];          // New index of each old index
+        for (int i = 0; i < numElements; i++) {
+            newIndex[nodes[i]] = i;
+        }
+
+        // Move the data and rebuild the relations using the new indices
+        T[] newData = (T[]) new Object[cap];
+        RelationStorage newRelations = newStorage(storage, cap);
+        for (int i = 0; i < numElements; i++) {
+            newData[i] = data[nodes[i]];
+            int leftNode = findLeft(nodes[i]);
+            int rightNode = findRight(nodes[i]);
+            if (leftNode != NUL)
+                newRelations.setLeft(i, newIndex[leftNode]);
+            if (rightNode != NUL)
+                newRelations.setRight(i, newIndex[rightNode]);
+        }
+        data = newData;
+        relations = newRelations;
+        root = isEmpty() ? NUL : 0;
+        numFree = 0;                // Every index from numElements on is unused
+        nextUnused = numElements;
+    }
+
+    // Stores the indices of all nodes into nodes level by level, each level from left to right.
+    private void collectBreadthFirst(int[] nodes) {
+        int count = 0;
+        if (root != NUL)
+            nodes[count++] = root;
+        for (int i = 0; i < count; i++) {   // nodes doubles as the queue of nodes to visit
+            int leftNode = findLeft(nodes[i]);
+            int rightNode = findRight(nodes[i]);
+            if (leftNode != NUL)
+                nodes[count++] = leftNode;
+            if (rightNode != NUL)
+                nodes[count++] = rightNode;
+        }
+    }
+
+    // Stores the indices of the top levels levels of the subtree rooted at node into nodes in van Emde Boas order,
+    // starting at position. Returns the position after the last index stored.
+    private int collectVanEmdeBoas(int node, int levels, int[] nodes, int position) {
+        if (node == NUL || levels == 0)
+            return position;
+        if (levels == 1) {
+            nodes[position++] = node;
+            return position;
+        }
+        int topLevels = levels / 2;
+        position = collectVanEmdeBoas(node, topLevels, nodes, position);    // Top half of the levels
+        for (int subtree: nodesAtDepth(node, topLevels)) {                  // Subtrees below the top half
+            position = collectVanEmdeBoas(subtree, levels - topLevels, nodes, position);
+        }
+        return position;
+    }
+
+    // Returns the indices of the nodes depth levels below node, from left to right.
+    private int[] nodesAtDepth(int node, int depth) {
+        int[] level = {node};
+        for (int d = 0; d < depth; d++) {
+            int[] next = new int[level.length * 2];
+            int count = 0;
+            for (int parent: level) {
+                int leftNode = findLeft(parent);
+                int rightNode = findRight(parent);
+                if (leftNode != NUL)
+                    next[count++] = leftNode;
+                if (rightNode != NUL)
+                    next[count++] = rightNode;
+            }
+            level = Arrays.copyOf(next, count);
+        }
+        return level;
+    }
+
+    // Returns the number of levels in the subtree rooted at node.
+    // Walks the subtree level by level instead of recursing, so a degenerate tree of any height can be compacted.
+    private int height(int node) {
+        if (node == NUL)
+            return 0;
+        int[] queue = new int[numElements];     // Nodes of the current level followed by those of the next
+        int count = 0;
+        queue[count++] = node;
+        int levels = 0;
+        for (int start = 0; start < count; levels++) {
+            int end = count;                    // The current level is queue[start] to queue[end - 1]
+            for (int i = start; i < end; i++) {
+                int leftNode = findLeft(queue[i]);
+                int rightNode = findRight(queue[i]);
+                if (leftNode != NUL)
+                    queue[count++] = leftNode;
+                if (rightNode != NUL)
+                    queue[count++] = rightNode;
+            }
+            start = end;
+        }
+        return levels;
+    }
+
+    // Stores the indices of all nodes into nodes in inOrder.
+    // Uses an explicit stack instead of recursion, so a degenerate tree of any height can be rebalanced.
+    private void collectInOrder(int[] nodes) {
+        int[] stack = new int[numElements];     // Nodes whose index and right subtree remain
+        int top = 0;
+        int position = 0;
+        int node = root;
+        while (node != NUL || top > 0) {
+            while (node != NUL) {               // Go down the left path
+                stack[top++] = node;
+                node = findLeft(node);
+            }
+            node = stack[--top];
+            nodes[position++] = node;
+            node = findRight(node);
+        }
+    }
+
+    // Relates the nodes at positions low to high of nodes into a balanced subtree, using the middle node as its root.
+    // Returns the index of the root, or NUL if the subtree is empty.
+    private int linkBalanced(int[] nodes, int low, int high) {
+        if (low > high)
+            return NUL;
+        int mid = (low + high) / 2;
+        int leftNode = linkBalanced(nodes, low, mid - 1);
+        int rightNode = linkBalanced(nodes, mid + 1, high);
+        if (leftNode != NUL)
+            relations.setLeft(nodes[mid], leftNode);
+        if (rightNode != NUL)
+            relations.setRight(nodes[mid], rightNode);
+        return nodes[mid];
+    }
 }
\ No newline at end of file
@@ -14,7 +14,21 @@ import java.util.Iterator;
 // Test MatrixBST methods
 public class MatrixBSTTestDriver {
     public static void main(String[] args) {
+        // Run every test case once for each type of relation storage; the results should not depend on it
+        for (MatrixBST.Storage storage: MatrixBST.Storage.values()) {
+            System.out.println("############ Relation storage: " + storage + " ############");
+            testStorage(storage);
+        }
+
+        /*
+         * End of tests
+         */
+        System.out.println("======= End of tests =======");
+        System.out.println("All tests completed.");
+    }
 
+    // Runs test cases 1 to 13 on trees using the given relation storage
+    public static void testStorage(MatrixBST.Storage storage) {
         // Integers for testing
         int testIntA = 0;
         int testIntB = 10;
@@ -24,9 +38,9 @@ public class MatrixBSTTestDriver {
         int testIntF = 50;
         int testIntG = 60;
 
-        int customCap = 10; // Custom max capacity for BST
+        int customCap = 10; // Custom initial capacity for BST
 
-        BSTInterface<Integer> tree = new MatrixBST<>(customCap); // Matrix binary search tree with custom max capacity
+        BSTInterface<Integer> tree = new MatrixBST<>(customCap, storage); // Matrix binary search tree with custom initial capacity
 
         /*
          * Test Case 1: add
@@ -50,13 +64,14 @@ public class MatrixBSTTestDriver {
         tree.add(testIntE);
         testPrint(tree);
 
-        // Add when array is full
-        System.out.println("\nAdding an element to tree when it is full:");
-        System.out.println("Filling array to max capacity (" + customCap + ")...");
-        for (int i = 0; i < customCap; i++) { // Note: tree may already be full, this just ensures it is full
+        // Add when array is at its initial capacity
+        System.out.println("\nAdding an element to tree when it is at its initial capacity:");
+        System.out.println("Filling array to initial capacity (" + customCap + ")...");
+        for (int i = tree.size(); i < customCap; i++) {
             tree.add(testIntA);
         }
-        System.out.println("Adding " + testIntA + " to tree (expecting false): " + tree.add(testIntA));
+        System.out.println("Adding " + testIntA + " to tree (expecting true): " + tree.add(testIntA));
+        System.out.println("Size (expecting " + (customCap + 1) + "): " + tree.size());
 
         /*
          * Test Case 2: get
@@ -130,13 +145,13 @@ public class MatrixBSTTestDriver {
         clearTree(tree);
         System.out.println("isFull when tree is empty (expecting false): " + tree.isFull());
 
-        // isFull when full
-        System.out.println("\nCall isFull on full tree:");
-        System.out.println("Filling array to max capacity (" + customCap + ")...");
-        for (int i = 0; i < customCap; i++) { // Note: tree may already be full, this just ensures it is full
+        // isFull when past initial capacity
+        System.out.println("\nCall isFull on tree past its initial capacity:");
+        System.out.println("Filling array past initial capacity (" + customCap + ")...");
+        for (int i = 0; i <= customCap; i++) {
             tree.add(testIntA);
         }
-        System.out.println("isFull when tree is full (expecting true): " + tree.isFull());
+        System.out.println("isFull when tree is past its initial capacity (expecting false): " + tree.isFull());
 
         /*
          * Test Case 5: isEmpty
@@ -345,21 +360,192 @@ public class MatrixBSTTestDriver {
         }
 
         /*
-         * End of tests
+         * Test Case 11: capacity
          */
-        System.out.println("======= End of tests =======");
-        System.out.println("All tests completed.");
+        System.out.print("\n======= Test Case 11: capacity methods =======");
+        MatrixBST<Integer> capTree = new MatrixBST<>(2, storage);
+
+        // Grow when adding
+        System.out.println("\nAdding 5 elements to a tree with capacity 2:");
+        for (int i = 0; i < 5; i++) {
+            capTree.add(i * 10);
+        }
+        testPrint(capTree);
+        System.out.println("Capacity (expecting at least 5): " + capTree.capacity());
+
+        // ensureCapacity
+        System.out.println("\nCall ensureCapacity(50):");
+        capTree.ensureCapacity(50);
+        System.out.println("Capacity (expecting 50): " + capTree.capacity());
+
+        // trimToSize
+        System.out.println("\nRemoving 40 then calling trimToSize:");
+        capTree.remove(40);
+        capTree.trimToSize();
+        testPrint(capTree);
+        System.out.println("Capacity (expecting 4): " + capTree.capacity());
+        System.out.println("Adding 50 after trimming (expecting true): " + capTree.add(50));
+        testPrint(capTree);
+        capTree.printTree();
+
+        /*
+         * Test Case 12: compact
+         */
+        System.out.print("\n======= Test Case 12: compact method =======");
+        MatrixBST<Integer> compactTree = new MatrixBST<>(customCap, storage);
+
+        // Scatter the nodes over the indices
+        System.out.println("\nAdding 10 elements, then removing and adding back every other one:");
+        int[] compactNums = {50, 20, 80, 10, 30, 60, 90, 0, 40, 70};
+        for (int num: compactNums) {
+            compactTree.add(num);
+        }
+        for (int i = 0; i < compactNums.length; i += 2) {
+            compactTree.remove(compactNums[i]);
+        }
+        for (int i = 0; i < compactNums.length; i += 2) {
+            compactTree.add(compactNums[i]);
+        }
+        testPrint(compactTree);
+
+        // Compact with each layout, the elements and their order should not change
+        for (MatrixBST.Layout layout: MatrixBST.Layout.values()) {
+            System.out.println("\nCall compact(" + layout + "):");
+            compactTree.compact(layout);
+            System.out.println("Expecting BST state: 0 10 20 30 40 50 60 70 80 90");
+            testPrint(compactTree);
+            System.out.println("Getting " + testIntD + " (expecting " + testIntD + "): " + compactTree.get(testIntD));
+            System.out.println("Getting 35 (expecting null): " + compactTree.get(35));
+            System.out.println("Min (expecting 0): " + compactTree.min());
+            System.out.println("Max (expecting 90): " + compactTree.max());
+        }
+
+        // Add and remove after compacting
+        System.out.println("\nAdd and remove after compacting:");
+        System.out.println("Adding 55 (expecting true): " + compactTree.add(55));
+        System.out.println("Adding 95 (expecting true): " + compactTree.add(95));
+        System.out.println("Removing " + testIntF + " (expecting true): " + compactTree.remove(testIntF));
+        System.out.println("Expecting BST state: 0 10 20 30 40 55 60 70 80 90 95");
+        testPrint(compactTree);
+        System.out.println("Getting 55 (expecting 55): " + compactTree.get(55));
+        System.out.println("Max (expecting 95): " + compactTree.max());
+        System.out.println("Size (expecting 11): " + compactTree.size());
+
+        // Compact a degenerate tree built from sorted input, which is as tall as it has elements
+        int sortedNums = 2000;  // Number of elements added in ascending order
+        System.out.println("\nCompact a tree built from " + sortedNums + " elements in ascending order:");
+        for (MatrixBST.Layout layout: MatrixBST.Layout.values()) {
+            MatrixBST<Integer> sortedTree = new MatrixBST<>(customCap, storage);
+            for (int i = 0; i < sortedNums; i++) {
+                sortedTree.add(i);
+            }
+            sortedTree.compact(layout);
+            boolean inOrder = true;     // True while the inorder iterator returns 0, 1, 2, ...
+            int expected = 0;
+            iter = sortedTree.iterator();
+            while (iter.hasNext()) {
+                if (iter.next() != expected++)
+                    inOrder = false;
+            }
+            System.out.println("compact(" + layout + "): elements 0 to " + (sortedNums - 1) + " in order (expecting true): "
+                               + (inOrder && expected == sortedNums));
+            System.out.println("Getting " + (sortedNums / 2) + " (expecting " + (sortedNums / 2) + "): " + sortedTree.get(sortedNums / 2));
+            System.out.println("Min (expecting 0): " + sortedTree.min() + ", max (expecting " + (sortedNums - 1) + "): " + sortedTree.max());
+        }
+
+        /*
+         * Test Case 13: neighbour and range queries
+         */
+        System.out.print("\n======= Test Case 13: ceiling, floor, higher, lower and range iterator methods =======");
+        MatrixBST<Integer> rangeTree = new MatrixBST<>(customCap, storage);
+
+        // Queries when empty
+        System.out.println("\nQueries when tree is empty:");
+        System.out.println("Ceiling of " + testIntC + " (expecting null): " + rangeTree.ceiling(testIntC));
+        System.out.println("Floor of " + testIntC + " (expecting null): " + rangeTree.floor(testIntC));
+        System.out.println("Higher than " + testIntC + " (expecting null): " + rangeTree.higher(testIntC));
+        System.out.println("Lower than " + testIntC + " (expecting null): " + rangeTree.lower(testIntC));
+        System.out.println("Range " + testIntA + " to " + testIntG + " (expecting nothing): "
+                           + iterString(rangeTree.rangeIterator(testIntA, testIntG)));
+        System.out.println("Head up to " + testIntC + " (expecting nothing): " + iterString(rangeTree.headIterator(testIntC)));
+        System.out.println("Tail from " + testIntC + " (expecting nothing): " + iterString(rangeTree.tailIterator(testIntC)));
+
+        System.out.println("\nAdding elements to tree...");
+        rangeTree.add(testIntD);
+        rangeTree.add(testIntB);
+        rangeTree.add(testIntF);
+        rangeTree.add(testIntC);
+        rangeTree.add(testIntE);
+        rangeTree.add(testIntG);
+        testPrint(rangeTree);
+
+        // Target in the tree
+        System.out.println("\nQueries for a target in the tree:");
+        System.out.println("Ceiling of " + testIntD + " (expecting " + testIntD + "): " + rangeTree.ceiling(testIntD));
+        System.out.println("Floor of " + testIntD + " (expecting " + testIntD + "): " + rangeTree.floor(testIntD));
+        System.out.println("Higher than " + testIntD + " (expecting " + testIntE + "): " + rangeTree.higher(testIntD));
+        System.out.println("Lower than " + testIntD + " (expecting " + testIntC + "): " + rangeTree.lower(testIntD));
+
+        // Target missing from the tree
+        System.out.println("\nQueries for a target missing from the tree:");
+        System.out.println("Ceiling of 35 (expecting " + testIntE + "): " + rangeTree.ceiling(35));
+        System.out.println("Floor of 35 (expecting " + testIntD + "): " + rangeTree.floor(35));
+        System.out.println("Higher than 35 (expecting " + testIntE + "): " + rangeTree.higher(35));
+        System.out.println("Lower than 35 (expecting " + testIntD + "): " + rangeTree.lower(35));
+
+        // Target below the minimum
+        System.out.println("\nQueries for a target below the minimum:");
+        System.out.println("Ceiling of " + testIntA + " (expecting " + testIntB + "): " + rangeTree.ceiling(testIntA));
+        System.out.println("Floor of " + testIntA + " (expecting null): " + rangeTree.floor(testIntA));
+        System.out.println("Higher than " + testIntA + " (expecting " + testIntB + "): " + rangeTree.higher(testIntA));
+        System.out.println("Lower than " + testIntB + " (expecting null): " + rangeTree.lower(testIntB));
+
+        // Target above the maximum
+        System.out.println("\nQueries for a target above the maximum:");
+        System.out.println("Ceiling of 70 (expecting null): " + rangeTree.ceiling(70));
+        System.out.println("Floor of 70 (expecting " + testIntG + "): " + rangeTree.floor(70));
+        System.out.println("Higher than " + testIntG + " (expecting null): " + rangeTree.higher(testIntG));
+        System.out.println("Lower than 70 (expecting " + testIntG + "): " + rangeTree.lower(70));
+
+        // Range iterators
+        System.out.println("\nRange iterators:");
+        System.out.println("Range 15 to 45 (expecting 20 30 40): " + iterString(rangeTree.rangeIterator(15, 45)));
+        System.out.println("Range " + testIntC + " to " + testIntE + " (expecting 20 30 40): "
+                           + iterString(rangeTree.rangeIterator(testIntC, testIntE)));
+        System.out.println("Range -10 to 70 (expecting 10 20 30 40 50 60): " + iterString(rangeTree.rangeIterator(-10, 70)));
+        System.out.println("Range -10 to " + testIntA + ", below the minimum (expecting nothing): "
+                           + iterString(rangeTree.rangeIterator(-10, testIntA)));
+        System.out.println("Range 70 to 80, above the maximum (expecting nothing): " + iterString(rangeTree.rangeIterator(70, 80)));
+        System.out.println("Range 32 to 38, between two elements (expecting nothing): " + iterString(rangeTree.rangeIterator(32, 38)));
+        System.out.println("Range " + testIntE + " to " + testIntC + ", low above high (expecting nothing): "
+                           + iterString(rangeTree.rangeIterator(testIntE, testIntC)));
+        System.out.println("Head up to 35 (expecting 10 20 30): " + iterString(rangeTree.headIterator(35)));
+        System.out.println("Head up to " + testIntA + ", below the minimum (expecting nothing): "
+                           + iterString(rangeTree.headIterator(testIntA)));
+        System.out.println("Tail from 35 (expecting 40 50 60): " + iterString(rangeTree.tailIterator(35)));
+        System.out.println("Tail from 70, above the maximum (expecting nothing): " + iterString(rangeTree.tailIterator(70)));
     }
     
     // Clear/remove all elements from tree
     public static void clearTree(BSTInterface<Integer> tree) {
         System.out.println("Clearing tree...");
-        Iterator<Integer> iter = tree.iterator();
+        Iterator<Integer> iter = tree.getSnapshotIterator(BSTInterface.Traversal.Inorder); // Snapshot, since the tree changes
         while (iter.hasNext()) {
             tree.remove(iter.next());
         }
     }
 
+    // Returns the elements left in iter separated by spaces, or "nothing" if there are none
+    public static String iterString(Iterator<Integer> iter) {
+        if (!iter.hasNext())
+            return "nothing";
+        String result = "" + iter.next();
+        while (iter.hasNext()) {
+            result += " " + iter.next();
+        }
+        return result;
+    }
+
     // Prints elements in tree in order
     public static void testPrint(BSTInterface<Integer> tree) {
         System.out.print("BST state: ");
@@ -0,0 +1,102 @@
+import java.util.Arrays;
+
+// Implements RelationStorage using an adjacency matrix packed into an array of longs.
+// Rows are parents and columns are children, as in EnumRelationMatrix.
+// Each cell takes 2 bits holding the ordinal of its Relation (NONE = 00, L = 01, R = 10),
+// so one long holds 32 cells of a row and every row starts on a new long.
+public class PackedRelationMatrix implements RelationStorage {
+    private static final int CELLS_PER_WORD = 32;
+    private static final long LOW_BITS = 0x5555555555555555L;  // Low bit of every cell in a word
+    private static final long CELL_MASK = 3L;                   // Both bits of one cell
+
+    protected int cap;              // Number of rows and columns
+    protected int wordsPerRow;      // Number of longs used by one row
+    protected long[] words;         // Contains the packed relations, row by row
+
+    public PackedRelationMatrix(int cap) {
+        this.cap = cap;
+        wordsPerRow = (cap + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+        words = new long[cap * wordsPerRow];    // All cells start as NONE (00)
+    }
+
+    public int capacity() {
+        return cap;
+    }
+
+    // Returns the index of the left child if found. Otherwise returns NUL.
+    // A cell holds L when its low bit is set and its high bit is not.
+    public int findLeft(int row) {
+        int start = row * wordsPerRow;
+        for (int i = 0; i < wordsPerRow; i++) {
+            long word = words[start + i];
+            long match = word & ~(word >>> 1) & LOW_BITS;
+            if (match != 0)
+                return i * CELLS_PER_WORD + (Long.numberOfTrailingZeros(match) >>> 1);
+        }
+        return NUL;
+    }
+
+    // Returns the index of the right child if found. Otherwise returns NUL.
+    // A cell holds R when its high bit is set and its low bit is not.
+    public int findRight(int row) {
+        int start = row * wordsPerRow;
+        for (int i = 0; i < wordsPerRow; i++) {
+            long word = words[start + i];
+            long match = (word >>> 1) & ~word & LOW_BITS;
+            if (match != 0)
+                return i * CELLS_PER_WORD + (Long.numberOfTrailingZeros(match) >>> 1);
+        }
+        return NUL;
+    }
+
+    public void setLeft(int parent, int child) {
+        setCell(parent, child, MatrixBST.Relation.L);
+    }
+
+    public void setRight(int parent, int child) {
+        setCell(parent, child, MatrixBST.Relation.R);
+    }
+
+    public void clearNode(int node) {
+        clearRow(node);     // Remove child relations of node
+        clearColumn(node);  // Remove parent relations of node
+    }
+
+    public void moveNode(int toNode, int fromNode) {
+        System.arraycopy(words, fromNode * wordsPerRow, words, toNode * wordsPerRow, wordsPerRow); // Copy relations
+        clearRow(fromNode);     // Remove relations of old node
+        clearColumn(fromNode);  // Remove parents of old node for safety
+    }
+
+    public void resize(int newCap) {
+        int newWordsPerRow = (newCap + CELLS_PER_WORD - 1) / CELLS_PER_WORD;
+        long[] newWords = new long[newCap * newWordsPerRow];
+        int rows = Math.min(cap, newCap);
+        int rowWords = Math.min(wordsPerRow, newWordsPerRow);
+        for (int row = 0; row < rows; row++)    // Keep existing relations, new cells start as NONE
+            System.arraycopy(words, row * wordsPerRow, newWords, row * newWordsPerRow, rowWords);
+        cap = newCap;
+        wordsPerRow = newWordsPerRow;
+        words = newWords;
+    }
+
+    // Sets the cell at row, column to relation
+    private void setCell(int row, int column, MatrixBST.Relation relation) {
+        int index = row * wordsPerRow + column / CELLS_PER_WORD;
+        int shift = (column % CELLS_PER_WORD) * 2;
+        words[index] = (words[index] & ~(CELL_MASK << shift)) | ((long) relation.ordinal() << shift);
+    }
+
+    // Sets every cell in row to NONE
+    private void clearRow(int row) {
+        int start = row * wordsPerRow;
+        Arrays.fill(words, start, start + wordsPerRow, 0L);
+    }
+
+    // Sets every cell in column to NONE
+    private void clearColumn(int column) {
+        long keep = ~(CELL_MASK << ((column % CELLS_PER_WORD) * 2));
+        for (int index = column / CELLS_PER_WORD; index < words.length; index += wordsPerRow)
+            words[index] &= keep;
+    }
+}
@@ -0,0 +1,593 @@
+//---------------------------------------------------------------------------
+// PersistentBST.java
+//
+// Defines a reference-based BST whose nodes are never changed. add and
+// remove copy the nodes on the search path, sharing the rest, and make the
+// copies the new version of the tree; a version that is no longer current is
+// left as it was. The tree is kept balanced with the AVL rules, so every
+// version is about log2(n) deep and an add or remove allocates O(log n)
+// nodes.
+//
+// snapshot() returns a tree sharing the current version in constant time.
+// Later changes to either tree never show in the other, so a snapshot can be
+// read, iterated or even changed while the original is being updated. Every
+// iterator walks the version that was current when it was created, so
+// getSnapshotIterator needs no copy.
+//
+// Changes must be made by one thread at a time. Since nodes are immutable
+// and the current version is published through a volatile field, other
+// threads may read the tree or take snapshots without locking.
+//---------------------------------------------------------------------------
+
+import java.util.*;   // Iterator, Comparator, ArrayDeque, Arrays, Spliterator
+import java.util.function.Supplier;
+
+public class PersistentBST<T> implements BSTInterface<T>
+{
+  private static final class Node<T>
+  // An immutable node. It stores the height and size of its subtree, which
+  // are computed from its children when it is created.
+  {
+    final T info;
+    final Node<T> left;
+    final Node<T> right;
+    final int height;
+    final int size;
+
+    Node(T info, Node<T> left, Node<T> right)
+    {
+      this.info = info;
+      this.left = left;
+      this.right = right;
+      height = 1 + Math.max(height(left), height(right));
+      size = 1 + size(left) + size(right);
+    }
+  }
+
+  protected final Comparator<T> comp;   // used for all comparisons
+
+  private volatile Node<T> root;        // the current version of this BST
+  private boolean found;                // used by remove and getOrAdd
+  private T located;                    // element found or added by getOrAdd
+
+  public PersistentBST()
+  // Precondition: T implements Comparable
+  // Creates an empty persistent BST object - uses the natural order of
+  // elements.
+  {
+    this(new Comparator<T>()
+    {
+       public int compare(T element1, T element2)
+       {
+         return ((Comparable)element1).compareTo(element2);
+       }
+    });
+  }
+
+  public PersistentBST(Comparator<T> comp)
+  // Creates an empty persistent BST object - uses Comparator comp for order
+  // of elements.
+  {
+    this(comp, null);
+  }
+
+  private PersistentBST(Comparator<T> comp, Node<T> root)
+  // Creates a persistent BST object whose current version is root.
+  {
+    this.comp = comp;
+    this.root = root;
+  }
+
+  public PersistentBST<T> snapshot()
+  // Returns a tree holding the current elements of this tree, in constant
+  // time. Changes to either tree do not affect the other.
+  {
+    return new PersistentBST<T>(comp, root);
+  }
+
+  private static int height(Node<?> node)
+  // Returns the height of the subtree rooted at node, 0 if node is null.
+  {
+    return (node == null) ? 0 : node.height;
+  }
+
+  private static int size(Node<?> node)
+  // Returns the number of elements in the subtree rooted at node.
+  {
+    return (node == null) ? 0 : node.size;
+  }
+
+  public boolean isFull()
+  // Returns false; this link-based BST is never full.
+  {
+    return false;
+  }
+
+  public boolean isEmpty()
+  // Returns true if this BST is empty; otherwise, returns false.
+  {
+    return (root == null);
+  }
+
+  public int size()
+  // Returns the number of elements in this BST.
+  {
+    return size(root);
+  }
+
+  public T min()
+  // If this BST is empty, returns null;
+  // otherwise returns the smallest element of the tree.
+  {
+    Node<T> node = root;
+    if (node == null)
+      return null;
+    while (node.left != null)
+      node = node.left;
+    return node.info;
+  }
+
+  public T max()
+  // If this BST is empty, returns null;
+  // otherwise returns the largest element of the tree.
+  {
+    Node<T> node = root;
+    if (node == null)
+      return null;
+    while (node.right != null)
+      node = node.right;
+    return node.info;
+  }
+
+  public T ceiling(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) >= 0; if no such element exists, returns null.
+  {
+    T result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) <= 0)
+      {
+        result = node.info;            // Candidate, look for a smaller one
+        node = node.left;
+      }
+      else
+        node = node.right;
+    }
+    return result;
+  }
+
+  public T floor(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) <= 0; if no such element exists, returns null.
+  {
+    T result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) >= 0)
+      {
+        result = node.info;            // Candidate, look for a larger one
+        node = node.right;
+      }
+      else
+        node = node.left;
+    }
+    return result;
+  }
+
+  public T higher(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) > 0; if no such element exists, returns null.
+  {
+    T result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) < 0)
+      {
+        result = node.info;            // Candidate, look for a smaller one
+        node = node.left;
+      }
+      else
+        node = node.right;
+    }
+    return result;
+  }
+
+  public T lower(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) < 0; if no such element exists, returns null.
+  {
+    T result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) > 0)
+      {
+        result = node.info;            // Candidate, look for a larger one
+        node = node.right;
+      }
+      else
+        node = node.left;
+    }
+    return result;
+  }
+
+  public boolean contains (T target)
+  // Returns true if this BST contains a node with info i such that
+  // comp.compare(target, i) == 0; otherwise, returns false.
+  {
+    return get(target) != null;
+  }
+
+  public T get(T target)
+  // Returns info i from node of this BST where comp.compare(target, i) == 0;
+  // if no such node exists, returns null.
+  {
+    Node<T> node = root;
+    while (node != null)
+    {
+      int result = comp.compare(target, node.info);
+      if (result < 0)
+        node = node.left;              // Search left subtree
+      else if (result > 0)
+        node = node.right;             // Search right subtree
+      else
+        return node.info;              // target is found
+    }
+    return null;                       // target is not found
+  }
+
+  private Node<T> balance(T info, Node<T> left, Node<T> right)
+  // Returns a new node holding info above left and right, rotated if the
+  // heights of left and right differ by 2. The rotations create new nodes.
+  {
+    int diff = height(left) - height(right);
+    if (diff > 1)
+    {
+      if (height(left.left) >= height(left.right))
+        // Single right rotation
+        return new Node<T>(left.info, left.left, new Node<T>(info, left.right, right));
+      else
+        // Left-right double rotation
+        return new Node<T>(left.right.info,
+                           new Node<T>(left.info, left.left, left.right.left),
+                           new Node<T>(info, left.right.right, right));
+    }
+    else if (diff < -1)
+    {
+      if (height(right.right) >= height(right.left))
+        // Single left rotation
+        return new Node<T>(right.info, new Node<T>(info, left, right.left), right.right);
+      else
+        // Right-left double rotation
+        return new Node<T>(right.left.info,
+                           new Node<T>(info, left, right.left.left),
+                           new Node<T>(right.info, right.left.right, right.right));
+    }
+    else
+      return new Node<T>(info, left, right);
+  }
+
+  private Node<T> recAdd(T element, Node<T> node)
+  // Returns the root of a new version of the subtree rooted at node holding
+  // element as well.
+  {
+    if (node == null)
+      // Addition place found
+      return new Node<T>(element, null, null);
+    else if (comp.compare(element, node.info) <= 0)
+      return balance(node.info, recAdd(element, node.left), node.right);
+    else
+      return balance(node.info, node.left, recAdd(element, node.right));
+  }
+
+  public boolean add (T element)
+  // Adds element to this BST, making a new version of the tree. The tree
+  // retains its BST and AVL properties.
+  {
+    root = recAdd(element, root);
+    return true;
+  }
+
+  private Node<T> recGetOrAdd(T key, Supplier<? extends T> supplier, Node<T> node)
+  // Finds the element of the subtree rooted at node that compares equal to
+  // key, adding supplier.get() if there is none, and keeps it in located.
+  // Sets found to true if key was found. Returns the root of the new version
+  // of the subtree, which is node itself if key was found.
+  {
+    if (node == null)
+    {
+      // Addition place found
+      located = supplier.get();
+      return new Node<T>(located, null, null);
+    }
+    int result = comp.compare(key, node.info);
+    if (result == 0)
+    {
+      found = true;
+      located = node.info;
+      return node;
+    }
+    else if (result < 0)
+    {
+      Node<T> left = recGetOrAdd(key, supplier, node.left);
+      return found ? node : balance(node.info, left, node.right);
+    }
+    else
+    {
+      Node<T> right = recGetOrAdd(key, supplier, node.right);
+      return found ? node : balance(node.info, node.left, right);
+    }
+  }
+
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this BST such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it. A
+  // hit allocates nothing and keeps the current version.
+  {
+    found = false;
+    root = recGetOrAdd(key, supplier, root);
+    T element = located;
+    located = null;
+    return element;
+  }
+
+  private Node<T> recRemove(T target, Node<T> node)
+  // Returns the root of a new version of the subtree rooted at node without
+  // an element i such that comp.compare(target, i) == 0 and sets found to
+  // true; if no such element exists, sets found to false and returns node.
+  {
+    if (node == null)
+    {
+      found = false;
+      return null;
+    }
+    int result = comp.compare(target, node.info);
+    if (result < 0)
+    {
+      Node<T> left = recRemove(target, node.left);
+      return found ? balance(node.info, left, node.right) : node;
+    }
+    else if (result > 0)
+    {
+      Node<T> right = recRemove(target, node.right);
+      return found ? balance(node.info, node.left, right) : node;
+    }
+    else
+    {
+      found = true;
+      if (node.left == null)
+        return node.right;
+      else if (node.right == null)
+        return node.left;
+      else
+      {
+        // Replace info with the predecessor's, removing the predecessor
+        Node<T> pred = node.left;
+        while (pred.right != null)
+          pred = pred.right;
+        return balance(pred.info, removeMax(node.left), node.right);
+      }
+    }
+  }
+
+  private Node<T> removeMax(Node<T> node)
+  // Returns the root of a new version of the subtree rooted at node without
+  // its largest element.
+  {
+    if (node.right == null)
+      return node.left;
+    return balance(node.info, node.left, removeMax(node.right));
+  }
+
+  public boolean remove (T target)
+  // Removes a node with info i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such node exists, returns false. A successful
+  // remove makes a new version of the tree.
+  {
+    root = recRemove(target, root);
+    return found;
+  }
+
+  public Iterator<T> getIterator(BSTInterface.Traversal orderType)
+  // Creates and returns an Iterator providing a traversal of the current
+  // version of the tree in the order indicated by the argument. Later changes
+  // to the tree do not affect the iterator.
+  {
+    return new TreeIterator(root, orderType);
+  }
+
+  public Iterator<T> getSnapshotIterator(BSTInterface.Traversal orderType)
+  // Same as getIterator: every iterator already walks a version that is
+  // never changed, so no copy is made.
+  {
+    return getIterator(orderType);
+  }
+
+  private class TreeIterator implements Iterator<T>
+  // Walks a version of the tree with a stack of nodes. When a node is
+  // expanded its subtrees and the node itself are pushed in the reverse of
+  // the order they are visited in.
+  {
+    private final BSTInterface.Traversal orderType;
+    private Node<T>[] nodes = new Node[16];        // Stack of nodes
+    private boolean[] expanded = new boolean[16];  // True if nodes[i] was expanded
+    private int top = 0;                           // Number of nodes on the stack
+
+    TreeIterator(Node<T> root, BSTInterface.Traversal orderType)
+    {
+      this.orderType = orderType;
+      push(root, false);
+    }
+
+    private void push(Node<T> node, boolean isExpanded)
+    // Pushes node onto the stack unless it is null.
+    {
+      if (node == null)
+        return;
+      if (top == nodes.length)
+      {
+        nodes = Arrays.copyOf(nodes, 2 * top);
+        expanded = Arrays.copyOf(expanded, 2 * top);
+      }
+      nodes[top] = node;
+      expanded[top++] = isExpanded;
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      return top > 0;
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      while (top > 0)
+      {
+        Node<T> node = nodes[--top];
+        if (expanded[top])
+          return node.info;
+        if (orderType == BSTInterface.Traversal.Preorder)
+        {
+          push(node.right, false);
+          push(node.left, false);
+          return node.info;
+        }
+        else if (orderType == BSTInterface.Traversal.Inorder)
+        {
+          push(node.right, false);
+          push(node, true);
+          push(node.left, false);
+        }
+        else
+        {
+          push(node, true);
+          push(node.right, false);
+          push(node.left, false);
+        }
+      }
+      throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                 " in PersistentBST iterator.\n");
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Use the remove method of the tree.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                            + "PersistentBST iterator.\n");
+    }
+  }
+
+  public Iterator<T> rangeIterator(T low, T high)
+  // Creates and returns an Iterator providing an inorder traversal of the
+  // elements e of the current version such that comp.compare(low, e) <= 0
+  // and comp.compare(e, high) <= 0.
+  {
+    return new RangeIterator(low, high);
+  }
+
+  private class RangeIterator implements Iterator<T>
+  // Walks the elements between low and high lazily. The stack holds the nodes
+  // not less than low whose info and right subtree remain, smallest on top.
+  {
+    private final T high;
+    private final ArrayDeque<Node<T>> stack = new ArrayDeque<Node<T>>();
+
+    RangeIterator(T low, T high)
+    {
+      this.high = high;
+      Node<T> node = root;
+      while (node != null)
+      {
+        if (comp.compare(low, node.info) <= 0)
+        {
+          stack.push(node);              // node and its right subtree are in range
+          node = node.left;
+        }
+        else
+          node = node.right;             // node and its left subtree are too small
+      }
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      if (!stack.isEmpty() && comp.compare(stack.peek().info, high) > 0)
+        stack.clear();                   // Every remaining element is too large
+      return !stack.isEmpty();
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      if (!hasNext())
+        throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                   " in PersistentBST range iterator.\n");
+      Node<T> node = stack.pop();
+      for (Node<T> next = node.right; next != null; next = next.left)
+        stack.push(next);
+      return node.info;
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Use the remove method of the tree.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                            + "PersistentBST range iterator.\n");
+    }
+  }
+
+  public Iterator<T> iterator()
+  // InOrder is the default, "natural" order.
+  {
+    return getIterator(BSTInterface.Traversal.Inorder);
+  }
+
+  public Spliterator<T> spliterator()
+  // Creates and returns a Spliterator over the current version of the tree
+  // in inorder. Its size is taken from the same version, so it stays exact
+  // while the tree is changed.
+  {
+    Node<T> version = root;
+    return Spliterators.spliterator(new TreeIterator(version, BSTInterface.Traversal.Inorder),
+             size(version), Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+  }
+
+  public void printTree() {
+    printBinaryTree(root, 0);
+  }
+
+  private void printBinaryTree(Node<T> root, int level){
+    if(root==null)
+         return;
+    printBinaryTree(root.right, level+1);
+    if(level!=0){
+        for(int i=0;i<level-1;i++)
+            System.out.print("|\t");
+        System.out.println("|-------"+root.info);
+    }
+    else
+        System.out.println(root.info);
+    printBinaryTree(root.left, level+1);
+  }
+
+  // Returns true if the tree is balanced. Every version keeps the AVL
+  // property, so only the heights below the root need to be checked.
+  public boolean isBalanced() {
+    Node<T> node = root;
+    return node == null || Math.abs(height(node.left) - height(node.right)) <= 1;
+  }
+
+  public void rebalance()
+  // Does nothing; every version of the tree is already balanced.
+  {
+  }
+}
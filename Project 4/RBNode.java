@@ -0,0 +1,19 @@
+//---------------------------------------------------------------------------
+// RBNode.java
+//
+// Implements nodes holding info of class <T> for a red-black tree. Each node
+// also stores its color as a single boolean.
+//---------------------------------------------------------------------------
+
+public class RBNode<T> extends BSTNode<T>
+{
+  private boolean red;           // True if the node is red, false if black
+
+  public RBNode(T info)
+  {
+    super(info); red = true;     // New nodes are red
+  }
+
+  public void setRed(boolean red){this.red = red;}
+  public boolean isRed(){return red;}
+}
@@ -0,0 +1,380 @@
+//---------------------------------------------------------------------------
+// RedBlackTree.java
+//
+// Defines a reference-based BST that keeps itself balanced using the red-black
+// rules: the root is black, a red node has no red child, and every path from
+// a node down to a null link passes the same number of black nodes. This
+// keeps the height below 2 log2(n + 1).
+//
+// add and remove are iterative, like the get and contains inherited from
+// BinarySearchTree. Instead of parent links the nodes on the way down are
+// kept in the path array, so an RBNode only adds a color to a BSTNode.
+// An add makes at most 2 rotations and a remove at most 3.
+//---------------------------------------------------------------------------
+
+import java.util.*;   // Comparator, Arrays
+import java.util.function.Supplier;
+
+public class RedBlackTree<T> extends BinarySearchTree<T>
+{
+  protected BSTNode<T>[] path = new BSTNode[64];   // Ancestors of the current node
+  protected int depth;                             // Number of nodes in path
+
+  public RedBlackTree()
+  // Precondition: T implements Comparable
+  // Creates an empty red-black tree object - uses the natural order of elements.
+  {
+    super();
+  }
+
+  public RedBlackTree(Comparator<T> comp)
+  // Creates an empty red-black tree object - uses Comparator comp for order
+  // of elements.
+  {
+    super(comp);
+  }
+
+  private boolean isRed(BSTNode<T> node)
+  // Returns true if node is red; null links are black.
+  {
+    return node != null && ((RBNode<T>) node).isRed();
+  }
+
+  private void setRed(BSTNode<T> node, boolean red)
+  // Colors node red if red is true, otherwise black.
+  {
+    ((RBNode<T>) node).setRed(red);
+  }
+
+  private void push(BSTNode<T> node)
+  // Adds node to the end of path.
+  {
+    if (depth == path.length)
+      path = Arrays.copyOf(path, 2 * depth);
+    path[depth++] = node;
+  }
+
+  private void replaceChild(BSTNode<T> parent, BSTNode<T> oldChild, BSTNode<T> newChild)
+  // Makes newChild take the place of oldChild below parent, or at the root if
+  // parent is null.
+  {
+    if (parent == null)
+      root = newChild;
+    else if (parent.getLeft() == oldChild)
+      parent.setLeft(newChild);
+    else
+      parent.setRight(newChild);
+  }
+
+  private BSTNode<T> rotateLeft(BSTNode<T> node, BSTNode<T> parent)
+  // Moves the right child of node up to node's position below parent and
+  // returns it.
+  {
+    BSTNode<T> newRoot = node.getRight();
+    node.setRight(newRoot.getLeft());
+    newRoot.setLeft(node);
+    updateSize(node);
+    updateSize(newRoot);
+    replaceChild(parent, node, newRoot);
+    return newRoot;
+  }
+
+  private BSTNode<T> rotateRight(BSTNode<T> node, BSTNode<T> parent)
+  // Moves the left child of node up to node's position below parent and
+  // returns it.
+  {
+    BSTNode<T> newRoot = node.getLeft();
+    node.setLeft(newRoot.getRight());
+    newRoot.setRight(node);
+    updateSize(node);
+    updateSize(newRoot);
+    replaceChild(parent, node, newRoot);
+    return newRoot;
+  }
+
+  private BSTNode<T> parentAt(int index)
+  // Returns the node at position index of path, or null if index is before
+  // the start of path.
+  {
+    if (index < 0)
+      return null;
+    else
+      return path[index];
+  }
+
+  public boolean add (T element)
+  // Adds element to this tree. The tree retains its BST and red-black
+  // properties.
+  {
+    RBNode<T> newNode = new RBNode<T>(element);
+    depth = 0;
+    BSTNode<T> node = root;
+    boolean goLeft = false;
+    while (node != null)
+    {
+      push(node);
+      node.setSize(node.getSize() + 1);   // Every node on the way gains the new node
+      goLeft = comp.compare(element, node.getInfo()) <= 0;
+      node = goLeft ? node.getLeft() : node.getRight();
+    }
+    if (depth == 0)
+      root = newNode;
+    else if (goLeft)
+      path[depth - 1].setLeft(newNode);
+    else
+      path[depth - 1].setRight(newNode);
+
+    fixAfterAdd(newNode);
+    setRed(root, false);
+    return true;
+  }
+
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this tree such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it. The
+  // tree retains its BST and red-black properties. The BinarySearchTree
+  // version does the search and retrace; path is filled during the retrace.
+  {
+    depth = 0;
+    return super.getOrAdd(key, supplier);
+  }
+
+  protected BSTNode<T> createNode(T element)
+  // Returns a new red node holding element.
+  {
+    return new RBNode<T>(element);
+  }
+
+  protected void retraced(BSTNode<T> node)
+  // Adds node, which is on the path to the node getOrAdd adds, to path.
+  {
+    push(node);
+  }
+
+  protected void added(BSTNode<T> node)
+  // Restores the red-black properties after getOrAdd added node below the
+  // nodes in path.
+  {
+    fixAfterAdd(node);
+    setRed(root, false);
+  }
+
+  private void fixAfterAdd(BSTNode<T> node)
+  // Restores the red-black properties after the red node was added below the
+  // nodes in path.
+  {
+    int index = depth;        // Position node would have in path
+    while (index >= 2 && isRed(path[index - 1]))
+    {
+      // The parent is red, so it is not the root and the grandparent exists
+      BSTNode<T> parent = path[index - 1];
+      BSTNode<T> grandparent = path[index - 2];
+      boolean parentIsLeft = (grandparent.getLeft() == parent);
+      BSTNode<T> uncle = parentIsLeft ? grandparent.getRight() : grandparent.getLeft();
+
+      if (isRed(uncle))
+      {
+        // Push the grandparent's blackness down and continue above it
+        setRed(parent, false);
+        setRed(uncle, false);
+        setRed(grandparent, true);
+        node = grandparent;
+        index = index - 2;
+      }
+      else
+      {
+        if (parentIsLeft)
+        {
+          if (parent.getRight() == node)
+            parent = rotateLeft(parent, grandparent);   // Inner child, move it outside
+          rotateRight(grandparent, parentAt(index - 3));
+        }
+        else
+        {
+          if (parent.getLeft() == node)
+            parent = rotateRight(parent, grandparent);  // Inner child, move it outside
+          rotateLeft(grandparent, parentAt(index - 3));
+        }
+        setRed(parent, false);
+        setRed(grandparent, true);
+        return;
+      }
+    }
+  }
+
+  public boolean remove (T target)
+  // Removes a node with info i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such node exists, returns false.
+  {
+    depth = 0;
+    BSTNode<T> node = root;
+    while (node != null)
+    {
+      int result = comp.compare(target, node.getInfo());
+      if (result == 0)
+        break;
+      push(node);
+      node = (result < 0) ? node.getLeft() : node.getRight();
+    }
+    if (node == null)
+      return false;
+
+    if (node.getLeft() != null && node.getRight() != null)
+    {
+      // Replace info with the predecessor's and remove the predecessor instead
+      push(node);
+      BSTNode<T> predecessor = node.getLeft();
+      while (predecessor.getRight() != null)
+      {
+        push(predecessor);
+        predecessor = predecessor.getRight();
+      }
+      node.setInfo(predecessor.getInfo());
+      node = predecessor;
+    }
+
+    // node now has at most one child, which takes its place
+    for (int i = 0; i < depth; i++)
+      path[i].setSize(path[i].getSize() - 1);   // Every node above loses node
+    BSTNode<T> parent = parentAt(depth - 1);
+    BSTNode<T> child = (node.getLeft() != null) ? node.getLeft() : node.getRight();
+    boolean childIsLeft = (parent != null && parent.getLeft() == node);
+    replaceChild(parent, node, child);
+
+    if (isRed(child))
+      setRed(child, false);     // The child takes over the removed black
+    else if (!isRed(node))
+      fixAfterRemove(child, childIsLeft);
+    if (root != null)
+      setRed(root, false);
+    return true;
+  }
+
+  private void fixAfterRemove(BSTNode<T> node, boolean nodeIsLeft)
+  // Restores the red-black properties after a black node was removed above
+  // node, whose parent is the last node in path. node may be null and is on
+  // the left of its parent if nodeIsLeft is true.
+  {
+    int index = depth - 1;    // Position of the parent of node in path
+    while (index >= 0)
+    {
+      BSTNode<T> parent = path[index];
+      BSTNode<T> sibling = nodeIsLeft ? parent.getRight() : parent.getLeft();
+
+      if (isRed(sibling))
+      {
+        // Rotate the red sibling above the parent so the sibling becomes black
+        setRed(sibling, false);
+        setRed(parent, true);
+        if (nodeIsLeft)
+          rotateLeft(parent, parentAt(index - 1));
+        else
+          rotateRight(parent, parentAt(index - 1));
+        path[index] = sibling;
+        index++;
+        if (index == depth)
+          push(parent);
+        else
+          path[index] = parent;
+        sibling = nodeIsLeft ? parent.getRight() : parent.getLeft();
+      }
+
+      if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight()))
+      {
+        // Take one black from both sides and move the problem up to the parent
+        setRed(sibling, true);
+        if (isRed(parent))
+        {
+          setRed(parent, false);
+          return;
+        }
+        node = parent;
+        index--;
+        nodeIsLeft = (index >= 0 && path[index].getLeft() == node);
+      }
+      else
+      {
+        if (nodeIsLeft)
+        {
+          if (!isRed(sibling.getRight()))
+          {
+            setRed(sibling.getLeft(), false);
+            setRed(sibling, true);
+            sibling = rotateRight(sibling, parent);
+          }
+          setRed(sibling, isRed(parent));
+          setRed(parent, false);
+          setRed(sibling.getRight(), false);
+          rotateLeft(parent, parentAt(index - 1));
+        }
+        else
+        {
+          if (!isRed(sibling.getLeft()))
+          {
+            setRed(sibling.getRight(), false);
+            setRed(sibling, true);
+            sibling = rotateLeft(sibling, parent);
+          }
+          setRed(sibling, isRed(parent));
+          setRed(parent, false);
+          setRed(sibling.getLeft(), false);
+          rotateRight(parent, parentAt(index - 1));
+        }
+        return;
+      }
+    }
+  }
+
+  public boolean isBalanced()
+  // Returns true if the tree follows the red-black rules, which keep its
+  // height below 2 log2(n + 1). The inherited check demands that the heights
+  // of sibling subtrees differ by at most 1, which valid red-black trees
+  // often do not meet.
+  {
+    return !isRed(root) && blackHeight(root) != -1;
+  }
+
+  private int blackHeight(BSTNode<T> node)
+  // Returns the number of black nodes on every path from node down to a null
+  // link, or -1 if the paths differ or a red node in the subtree has a red
+  // child.
+  {
+    if (node == null)
+      return 0;   // A null link is black and ends every path
+
+    if (isRed(node) && (isRed(node.getLeft()) || isRed(node.getRight())))
+      return -1;  // Red node with a red child
+
+    int leftHeight = blackHeight(node.getLeft());
+    if (leftHeight == -1 || leftHeight != blackHeight(node.getRight()))
+      return -1;  // A subtree breaks the rules or the black heights differ
+
+    return leftHeight + (isRed(node) ? 0 : 1);
+  }
+
+  public void rebalance()
+  // Restructures this tree into a complete tree, then colors the nodes of an
+  // incomplete bottom level red and all other nodes black.
+  {
+    super.rebalance();
+    int leftHeight = 0;       // The leftmost path of a complete tree is the longest
+    for (BSTNode<T> node = root; node != null; node = node.getLeft())
+      leftHeight++;
+    int rightHeight = 0;      // and the rightmost path is the shortest
+    for (BSTNode<T> node = root; node != null; node = node.getRight())
+      rightHeight++;
+    recolor(root, 1, (leftHeight == rightHeight) ? 0 : leftHeight);
+  }
+
+  private void recolor(BSTNode<T> node, int level, int redLevel)
+  // Colors the nodes of the subtree rooted at node, which is on the given
+  // level, red if they are on redLevel and black otherwise.
+  {
+    if (node != null)
+    {
+      setRed(node, level == redLevel);
+      recolor(node.getLeft(), level + 1, redLevel);
+      recolor(node.getRight(), level + 1, redLevel);
+    }
+  }
+}
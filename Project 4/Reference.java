@@ -9,6 +9,13 @@ public class Reference implements Comparable<Reference> {
 
     public String getWordIs(){ return word; }
     public String getVerses(){ return verses.toString(); }
+    public int getVerseCount(){ return verses.size(); }
+
+    // Changes the word, so one Reference can be reused to look up many words.
+    // Must not be called on a Reference stored in a tree.
+    public void setWord(String newWord) {
+        word = newWord;
+    }
 
     // Adds a verse to the collection of verses containing the word
     public void addVerse(String verse) {
@@ -0,0 +1,32 @@
+// Interface for a class that stores the parent/child relations of a MatrixBST.
+// Nodes are represented by indices into the tree's data array.
+// Indices passed to these methods are always between 0 and capacity() - 1.
+public interface RelationStorage {
+    int NUL = -1;   // Returned when a relation does not exist
+
+    // Returns the number of nodes relations can be stored for.
+    int capacity();
+
+    // Returns the index of the left child of node if found. Otherwise returns NUL.
+    int findLeft(int node);
+
+    // Returns the index of the right child of node if found. Otherwise returns NUL.
+    int findRight(int node);
+
+    // Records child as the left child of parent.
+    void setLeft(int parent, int child);
+
+    // Records child as the right child of parent.
+    void setRight(int parent, int child);
+
+    // Removes all relations where node is either the parent or the child.
+    void clearNode(int node);
+
+    // Gives toNode the children of fromNode, then removes all relations of fromNode.
+    // The parent relation of toNode is kept.
+    void moveNode(int toNode, int fromNode);
+
+    // Changes the capacity to newCap, keeping the relations between nodes below newCap.
+    // Precondition: no relation involves a node at or above newCap.
+    void resize(int newCap);
+}
@@ -13,23 +13,43 @@ public class SearchBibleWord {
         BSTInterface<Reference> tree;   // Tree implementation type will be specified later
         Scanner scanner;                // Scanner variable for all instances of getting user input
 
-        // Ask user which of the two tree implementations to use
-        // If choice is 1, uses linked version. Otherwise uses matrix.
+        // Ask user which of the five tree implementations to use
+        // If choice is 1, uses linked version. If choice is 3, uses AVL version. If choice is 4, uses splay version.
+        // If choice is 5, uses threaded version. Otherwise uses matrix.
         scanner = new Scanner(System.in);
-        System.out.println("Which binary search tree implementation would you like to use?\n1. Linked\n2. Matrix");
+        System.out.println("Which binary search tree implementation would you like to use?\n1. Linked\n2. Matrix\n3. AVL\n4. Splay\n5. Threaded");
         int choice = scanner.nextInt();
+        boolean selfBalancing = false;  // True if the tree keeps itself balanced and does not need rebalancing
+        boolean adaptive = false;       // True if the tree reshapes itself for the searches and must not be frozen
+        boolean threaded = false;       // True if the tree is kept for browsing along its threads
         if (choice == 1) {  // Using linked implementation
             tree = new BinarySearchTree<Reference>();
             System.out.println("Using linked implementation.");
         }
+        else if (choice == 3) {  // Using self-balancing linked implementation
+            tree = new AVLTree<Reference>();
+            selfBalancing = true;
+            System.out.println("Using AVL implementation.");
+        }
+        else if (choice == 4) {  // Using splay implementation, which moves searched words to the root
+            tree = new SplayTree<Reference>();
+            adaptive = true;
+            System.out.println("Using splay implementation.");
+        }
+        else if (choice == 5) {  // Using threaded implementation, which steps to neighbouring words without searching
+            tree = new ThreadedBST<Reference>();
+            threaded = true;
+            System.out.println("Using threaded implementation.");
+        }
         else {  // Using array and matrix implementation
-            tree = new MatrixBST<Reference>();
+            tree = new MatrixBST<Reference>(MatrixBST.Storage.ChildIndex);  // Child indices avoid allocating a DEFCAP x DEFCAP matrix
             System.out.println("Using array and matrix implementation.");
         }
 
         // Get book of Bible to search and sort all words with their references into a binary search tree
         Reference wordToTry;
         Reference wordInTree;
+        Reference probe = new Reference("");   // Reused to look up each word while indexing
         String book = "";
         boolean found = false;
         while (!found) {
@@ -52,18 +72,15 @@ public class SearchBibleWord {
                     String[] words = line.split("\\s+");    // Split line by spaces into individual strings
                     for (String word: words) {
                         // Remove any punctuation and capitalization. Delimiters are nonletters,'
-                        word = word.replaceAll("[^a-zA-Z']", "").toLowerCase();
+                        String cleanWord = word.replaceAll("[^a-zA-Z']", "").toLowerCase();
 
-                        wordToTry = new Reference(word);
-                        wordInTree = tree.get(wordToTry);
+                        // Find the word in the tree, or insert a new Reference for it, in one search.
+                        // The probe is only used for comparing, so one is reused for every word.
+                        probe.setWord(cleanWord);
+                        wordInTree = tree.getOrAdd(probe, () -> new Reference(cleanWord));
 
-                        if (wordInTree == null) {
-                            // Word not in tree yet, insert word into tree
-                            wordToTry.addVerse(words[0]);
-                            tree.add(wordToTry);
-                        }
-                        else if (!wordInTree.getVerses().contains(words[0])) {
-                            // Word already in tree and verse not added to references yet, just add the verse
+                        if (!wordInTree.getVerses().contains(words[0])) {
+                            // Verse not added to references yet, add the verse
                             wordInTree.addVerse(words[0]);   
                         }
                     }
@@ -80,18 +97,51 @@ public class SearchBibleWord {
         if (found) {    // Ensure book has been found
             System.out.println("Finished sorting words.");
 
-            rebalanceTree(tree);    // Rebalance tree
+            if (!selfBalancing)
+                rebalanceTree(tree);    // Rebalance tree
+
+            // The tree is only searched from now on, so copy it into a read-only tree laid out for fast searching.
+            // A splay tree is kept, so that words searched often stay near its root.
+            // A threaded tree is kept, so that browsing steps to the next word through a thread.
+            // Searches for a whole word go to a hash table of the words in front of the frozen tree, while prefix
+            // searches and browsing still use the tree.
+            if (!adaptive && !threaded)
+                tree = new HashFrontBST<Reference, String>(new EytzingerBST<Reference>(tree), Reference::getWordIs);
 
             String userChoice = "";
+            Reference current = null;   // Word last displayed, browsing starts from it
             while (!userChoice.equals("!quit")) {
-                System.out.println("Enter a word to search (!quit to quit):");
+                System.out.println("Enter a word to search, or a prefix ending in * to search every word starting with it,");
+                System.out.println("!next or !prev to browse the words alphabetically from the last word shown (!quit to quit):");
                 userChoice = scanner.nextLine().toLowerCase();
-                if (!userChoice.equals("!quit")) {
+                if (userChoice.endsWith("*"))
+                    // Prefix search, display verses of every word starting with the prefix
+                    searchPrefix(tree, userChoice.substring(0, userChoice.length() - 1));
+                else if (userChoice.equals("!next") || userChoice.equals("!prev")) {
+                    // Browse to the word after or before the last word shown, or start at the first or last word
+                    boolean forward = userChoice.equals("!next");
+                    if (current == null)
+                        wordInTree = forward ? tree.min() : tree.max();
+                    else if (threaded)
+                        wordInTree = forward ? ((ThreadedBST<Reference>) tree).successor(current)
+                                             : ((ThreadedBST<Reference>) tree).predecessor(current);
+                    else
+                        wordInTree = forward ? tree.higher(current) : tree.lower(current);
+                    if (wordInTree != null) {
+                        current = wordInTree;
+                        System.out.println(wordInTree);
+                    }
+                    else
+                        System.out.println(forward ? "No more words." : "No earlier words.");
+                }
+                else if (!userChoice.equals("!quit")) {
                     wordToTry = new Reference(userChoice);
                     wordInTree = tree.get(wordToTry);
-                    if (wordInTree != null)
+                    if (wordInTree != null) {
                         // Word exists in tree, display verses
+                        current = wordInTree;
                         System.out.println(wordInTree);
+                    }
                     else
                         // Word not in tree
                         System.out.println("Word not found.");
@@ -103,28 +153,20 @@ public class SearchBibleWord {
         }
     }
 
+    // Displays every word in the tree starting with prefix, in alphabetical order.
+    // Every such word lies between prefix and prefix followed by the largest char, so only that range of the tree is visited.
+    private static void searchPrefix(BSTInterface<Reference> tree, String prefix) {
+        Iterator<Reference> words = tree.rangeIterator(new Reference(prefix), new Reference(prefix + Character.MAX_VALUE));
+        if (!words.hasNext())
+            System.out.println("No words found starting with \"" + prefix + "\".");
+        while (words.hasNext())
+            System.out.println(words.next());
+    }
+
     // Balances a given tree and returns the balanced tree
     public static BSTInterface<Reference> rebalanceTree(BSTInterface<Reference> tree) {
         System.out.println("Rebalancing tree...");
-        Iterator<Reference> iter = tree.getIterator(BSTInterface.Traversal.Inorder);
-
-        Reference[] tempArray = new Reference[tree.size()]; // Temporary array to hold items from tree
-
-        // Add reference objects from tree to array (inorder)
-        int i = 0;
-        while (iter.hasNext()) {
-            tempArray[i] = iter.next();
-            i++;
-        }
-
-        // Clear tree
-        iter = tree.iterator();
-        while (iter.hasNext()) {
-            tree.remove(iter.next());
-        }
-
-        // Add references back to tree in a balanced order
-        addArrayToTree(0, tempArray.length - 1, tree, tempArray);
+        tree.rebalance();   // Restructures the tree in place without removing and adding the references
 
         // Verify tree is balanced
         System.out.println("Tree is balanced status (should be true): " + tree.isBalanced());
@@ -132,16 +174,6 @@ public class SearchBibleWord {
         return tree;
     }
 
-    // Recursively create balanced nodes from the middle of sorted subarrays and build subtrees from remaining halves.
-    private static void addArrayToTree(int low, int high, BSTInterface<Reference> tree, Reference[] array) {
-        if (low <= high) {
-            int mid = (low + high) / 2;
-            tree.add(array[mid]);
-            addArrayToTree(low, mid - 1, tree, array);  // Left subarrays/subtrees
-            addArrayToTree(mid + 1, high, tree, array); // Right subarrays/subtrees
-        }
-    }
-
     // Displays the abbreviations of the books used in the Bible file
     public static void printBibleBooks() {
         String[][] books = {
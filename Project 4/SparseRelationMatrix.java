@@ -0,0 +1,163 @@
+import java.util.Arrays;
+
+// Implements RelationStorage using a hash table that only holds the relations that exist.
+// A missing entry means NONE, so memory and construction time grow with the number of nodes inserted, not the capacity.
+// Each relation is stored from both ends: (parent, LEFT) or (parent, RIGHT) maps to the child,
+// and (child, PARENT) maps to the parent. The table uses open addressing with linear probing.
+public class SparseRelationMatrix implements RelationStorage {
+    private static final int LEFT = 0;          // Kinds of entries, stored in the low bits of a key
+    private static final int RIGHT = 1;
+    private static final int PARENT = 2;
+
+    private static final long EMPTY = -1L;      // Key of an unused table slot
+    private static final int MIN_TABLE = 16;    // Initial table length, always a power of 2
+
+    protected int cap;              // Number of nodes
+    protected long[] keys;          // Node index and kind of each entry, or EMPTY
+    protected int[] values;         // Index of the related node of each entry
+    protected int numEntries = 0;   // Number of entries in the table
+
+    public SparseRelationMatrix(int cap) {
+        this.cap = cap;
+        keys = new long[MIN_TABLE];
+        values = new int[MIN_TABLE];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public int capacity() {
+        return cap;
+    }
+
+    public int findLeft(int node) {
+        return get(key(node, LEFT));
+    }
+
+    public int findRight(int node) {
+        return get(key(node, RIGHT));
+    }
+
+    public void setLeft(int parent, int child) {
+        put(key(parent, LEFT), child);
+        put(key(child, PARENT), parent);
+    }
+
+    public void setRight(int parent, int child) {
+        put(key(parent, RIGHT), child);
+        put(key(child, PARENT), parent);
+    }
+
+    public void clearNode(int node) {
+        detachFromParent(node);
+        int leftNode = remove(key(node, LEFT));
+        if (leftNode != NUL)
+            remove(key(leftNode, PARENT));
+        int rightNode = remove(key(node, RIGHT));
+        if (rightNode != NUL)
+            remove(key(rightNode, PARENT));
+    }
+
+    public void moveNode(int toNode, int fromNode) {
+        detachFromParent(fromNode);
+        int leftNode = remove(key(fromNode, LEFT));     // Remove relations of old node
+        int rightNode = remove(key(fromNode, RIGHT));
+        remove(key(toNode, LEFT));
+        remove(key(toNode, RIGHT));
+        if (leftNode != NUL)                            // Copy relations
+            setLeft(toNode, leftNode);
+        if (rightNode != NUL)
+            setRight(toNode, rightNode);
+    }
+
+    // The table does not depend on the capacity, so only the capacity changes.
+    public void resize(int newCap) {
+        cap = newCap;
+    }
+
+    // Removes the relation between node and its parent, if it has one.
+    private void detachFromParent(int node) {
+        int parent = remove(key(node, PARENT));
+        if (parent != NUL) {
+            if (get(key(parent, LEFT)) == node)
+                remove(key(parent, LEFT));
+            else if (get(key(parent, RIGHT)) == node)
+                remove(key(parent, RIGHT));
+        }
+    }
+
+    // Returns the key of the entry of the given kind for node
+    private static long key(int node, int kind) {
+        return ((long) node << 2) | kind;
+    }
+
+    // Returns the table slot where the search for key starts
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (keys.length - 1);
+    }
+
+    // Returns the table slot holding key, or the empty slot where it would be inserted
+    private int find(long key) {
+        int slot = home(key);
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & (keys.length - 1);
+        return slot;
+    }
+
+    // Returns the value stored for key, or NUL if there is none
+    private int get(long key) {
+        int slot = find(key);
+        return (keys[slot] == EMPTY) ? NUL : values[slot];
+    }
+
+    // Stores value for key, replacing any value already stored
+    private void put(long key, int value) {
+        if ((numEntries + 1) * 2 > keys.length)
+            rehash(keys.length * 2);    // Keep the table at most half full
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            numEntries++;
+        }
+        values[slot] = value;
+    }
+
+    // Removes key and returns the value that was stored for it, or NUL if there was none.
+    // Later entries of the probe sequence are shifted back so no deleted markers are needed.
+    private int remove(long key) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY)
+            return NUL;
+        int value = values[slot];
+        int mask = keys.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (keys[next] == EMPTY)
+                break;
+            // Move the entry at next into the hole if the hole lies between its home slot and next
+            if (((next - home(keys[next])) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+        }
+        keys[slot] = EMPTY;
+        numEntries--;
+        return value;
+    }
+
+    // Moves all entries into a new table of the given length
+    private void rehash(int length) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[length];
+        values = new int[length];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
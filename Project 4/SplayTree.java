@@ -0,0 +1,241 @@
+//---------------------------------------------------------------------------
+// SplayTree.java
+//
+// Defines a reference-based BST that moves every element it looks up, adds
+// or removes to the root by splaying: a series of rotations that also about
+// halves the depth of the nodes on the way. Any series of m operations takes
+// O(m log n) time, and elements that are looked up often stay near the root,
+// so a small set of popular elements is found after only a few comparisons.
+//
+// Splaying is done top-down (Sleator and Tarjan), in one pass from the root,
+// keeping the subtree sizes of BinarySearchTree up to date. Because get and
+// contains change the shape of the tree, a SplayTree must not be searched by
+// several threads at once, nor changed while it is being iterated.
+//---------------------------------------------------------------------------
+
+import java.util.*;   // Comparator
+import java.util.function.Supplier;
+
+public class SplayTree<T> extends BinarySearchTree<T>
+{
+  private final BSTNode<T> header = new BSTNode<T>(null);   // Holds the left and
+                                                            // right trees while splaying
+  public SplayTree()
+  // Precondition: T implements Comparable
+  // Creates an empty splay tree object - uses the natural order of elements.
+  {
+    super();
+  }
+
+  public SplayTree(Comparator<T> comp)
+  // Creates an empty splay tree object - uses Comparator comp for order
+  // of elements.
+  {
+    super(comp);
+  }
+
+  private int compareTo(T target, BSTNode<T> node)
+  // Returns comp.compare(target, i) for the info i of node. A null target is
+  // larger than every element, so splay(null) brings the largest element up.
+  {
+    return (target == null) ? 1 : comp.compare(target, node.getInfo());
+  }
+
+  private int splay(T target)
+  // Rearranges the nonempty tree so that its root holds an element i such
+  // that comp.compare(target, i) == 0, or if there is none, the element just
+  // before or after where target would be. Returns the comparison of target
+  // with the new root.
+  //
+  // Nodes smaller than target are hung on the right spine of a left tree and
+  // larger ones on the left spine of a right tree, both kept below header.
+  // The sizes of the nodes on those spines are fixed once the final root and
+  // the sizes of the left and right trees are known.
+  {
+    BSTNode<T> left = header, right = header;   // Ends of the left and right trees
+    BSTNode<T> node = root, child;
+    int leftSize = 0, rightSize = 0;            // Sizes of the left and right trees
+    header.setLeft(null);
+    header.setRight(null);
+
+    // The result of comparing with a child is kept for when the child becomes
+    // node, so no node is compared twice
+    int result = compareTo(target, node);
+    while (result != 0)
+    {
+      if (result < 0)
+      {
+        if (node.getLeft() == null)
+          break;
+        result = compareTo(target, node.getLeft());
+        boolean rotated = (result < 0);
+        if (rotated)
+        {
+          child = node.getLeft();              // Rotate right
+          node.setLeft(child.getRight());
+          child.setRight(node);
+          updateSize(node);
+          node = child;
+          if (node.getLeft() == null)
+            break;
+        }
+        right.setLeft(node);                   // Link right
+        right = node;
+        node = node.getLeft();
+        rightSize += 1 + subtreeSize(right.getRight());
+        if (rotated)
+          result = compareTo(target, node);
+      }
+      else
+      {
+        if (node.getRight() == null)
+          break;
+        result = compareTo(target, node.getRight());
+        boolean rotated = (result > 0);
+        if (rotated)
+        {
+          child = node.getRight();             // Rotate left
+          node.setRight(child.getLeft());
+          child.setLeft(node);
+          updateSize(node);
+          node = child;
+          if (node.getRight() == null)
+            break;
+        }
+        left.setRight(node);                   // Link left
+        left = node;
+        node = node.getRight();
+        leftSize += 1 + subtreeSize(left.getLeft());
+        if (rotated)
+          result = compareTo(target, node);
+      }
+    }
+
+    // Add the subtrees node keeps, then fix the sizes down both spines
+    leftSize += subtreeSize(node.getLeft());
+    rightSize += subtreeSize(node.getRight());
+    node.setSize(leftSize + rightSize + 1);
+    left.setRight(null);
+    right.setLeft(null);
+    for (child = header.getRight(); child != null; child = child.getRight())
+    {
+      child.setSize(leftSize);
+      leftSize -= 1 + subtreeSize(child.getLeft());
+    }
+    for (child = header.getLeft(); child != null; child = child.getLeft())
+    {
+      child.setSize(rightSize);
+      rightSize -= 1 + subtreeSize(child.getRight());
+    }
+
+    // Assemble the left tree, node and the right tree
+    left.setRight(node.getLeft());
+    right.setLeft(node.getRight());
+    node.setLeft(header.getRight());
+    node.setRight(header.getLeft());
+    root = node;
+    return result;
+  }
+
+  public T get(T target)
+  // Returns info i from node of this tree where comp.compare(target, i) == 0;
+  // if no such node exists, returns null. The node found, or the last node
+  // visited, becomes the root.
+  {
+    if (root == null)
+      return null;
+    if (splay(target) == 0)
+      return root.getInfo();
+    else
+      return null;
+  }
+
+  public boolean contains (T target)
+  // Returns true if this tree contains a node with info i such that
+  // comp.compare(target, i) == 0; otherwise, returns false. The node found,
+  // or the last node visited, becomes the root.
+  {
+    return get(target) != null;
+  }
+
+  private void addAtRoot(T element, int result)
+  // Makes a new node holding element the root, splitting the old root and
+  // its subtree between its children. result is the comparison of element
+  // with the info of the old root, which was just splayed.
+  {
+    BSTNode<T> newNode = new BSTNode<T>(element);
+    if (root != null)
+    {
+      if (result <= 0)
+      {
+        newNode.setLeft(root.getLeft());
+        newNode.setRight(root);
+        root.setLeft(null);
+      }
+      else
+      {
+        newNode.setRight(root.getRight());
+        newNode.setLeft(root);
+        root.setRight(null);
+      }
+      updateSize(root);
+      updateSize(newNode);
+    }
+    root = newNode;
+  }
+
+  public boolean add (T element)
+  // Adds element to this tree as its new root. The tree retains its BST
+  // property.
+  {
+    int result = 0;
+    if (root != null)
+    {
+      result = splay(element);
+    }
+    addAtRoot(element, result);
+    return true;
+  }
+
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this tree such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it. One
+  // splay finds key or the place to add it; either way the element ends up at
+  // the root.
+  {
+    int result = 0;
+    if (root != null)
+    {
+      result = splay(key);
+      if (result == 0)
+        return root.getInfo();
+    }
+    T element = supplier.get();
+    addAtRoot(element, result);
+    return element;
+  }
+
+  public boolean remove (T target)
+  // Removes a node with info i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such node exists, returns false.
+  {
+    if (root == null)
+      return false;
+    if (splay(target) != 0)
+      return false;
+
+    BSTNode<T> rightTree = root.getRight();
+    if (root.getLeft() == null)
+      root = rightTree;
+    else
+    {
+      // Bring the largest element of the left subtree to its root, which then
+      // has no right child, and hang the right subtree there
+      root = root.getLeft();
+      splay(null);
+      root.setRight(rightTree);
+      updateSize(root);
+    }
+    return true;
+  }
+}
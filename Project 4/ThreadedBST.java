@@ -0,0 +1,709 @@
+//---------------------------------------------------------------------------
+// ThreadedBST.java
+//
+// Defines a fully threaded reference-based BST. A node without a left child
+// links to its inorder predecessor instead, and a node without a right child
+// to its inorder successor; flags in the node tell threads from child links.
+// Only the smallest node has a null left link and only the largest a null
+// right link.
+//
+// Following the threads, an inorder or preorder walk needs no stack and
+// allocates nothing but the iterator, taking O(1) amortized time per
+// element, and the successor or predecessor of a node is found without
+// searching from the root again. Postorder iteration keeps a stack of the
+// path like BinarySearchTree.
+//---------------------------------------------------------------------------
+
+import java.util.*;   // Iterator, Comparator, ArrayDeque
+import java.util.function.Supplier;
+
+public class ThreadedBST<T> implements BSTInterface<T>
+{
+  private static final class Node<T>
+  {
+    T info;
+    Node<T> left;            // Left child, or the predecessor if leftThread
+    Node<T> right;           // Right child, or the successor if rightThread
+    boolean leftThread = true;
+    boolean rightThread = true;
+
+    Node(T info)
+    {
+      this.info = info;
+    }
+  }
+
+  protected final Comparator<T> comp;   // used for all comparisons
+
+  private Node<T> root;                 // reference to the root of this BST
+  private int numElements = 0;
+
+  private Node<T> cursor;               // Next node to place, used by rebalance
+  private Node<T> previous;             // Last node placed, used by rebalance
+
+  public ThreadedBST()
+  // Precondition: T implements Comparable
+  // Creates an empty threaded BST object - uses the natural order of
+  // elements.
+  {
+    this(new Comparator<T>()
+    {
+       public int compare(T element1, T element2)
+       {
+         return ((Comparable)element1).compareTo(element2);
+       }
+    });
+  }
+
+  public ThreadedBST(Comparator<T> comp)
+  // Creates an empty threaded BST object - uses Comparator comp for order
+  // of elements.
+  {
+    this.comp = comp;
+  }
+
+  public boolean isFull()
+  // Returns false; this link-based BST is never full.
+  {
+    return false;
+  }
+
+  public boolean isEmpty()
+  // Returns true if this BST is empty; otherwise, returns false.
+  {
+    return (root == null);
+  }
+
+  public int size()
+  // Returns the number of elements in this BST.
+  {
+    return numElements;
+  }
+
+  private Node<T> first(Node<T> node)
+  // Returns the smallest node of the subtree rooted at node.
+  {
+    while (!node.leftThread)
+      node = node.left;
+    return node;
+  }
+
+  private Node<T> last(Node<T> node)
+  // Returns the largest node of the subtree rooted at node.
+  {
+    while (!node.rightThread)
+      node = node.right;
+    return node;
+  }
+
+  private Node<T> next(Node<T> node)
+  // Returns the inorder successor of node, or null if node is the largest.
+  {
+    if (node.rightThread)
+      return node.right;
+    return first(node.right);
+  }
+
+  private Node<T> prev(Node<T> node)
+  // Returns the inorder predecessor of node, or null if node is the smallest.
+  {
+    if (node.leftThread)
+      return node.left;
+    return last(node.left);
+  }
+
+  public T min()
+  // If this BST is empty, returns null;
+  // otherwise returns the smallest element of the tree.
+  {
+    if (root == null)
+      return null;
+    return first(root).info;
+  }
+
+  public T max()
+  // If this BST is empty, returns null;
+  // otherwise returns the largest element of the tree.
+  {
+    if (root == null)
+      return null;
+    return last(root).info;
+  }
+
+  private Node<T> find(T target)
+  // Returns a node with info i such that comp.compare(target, i) == 0, or
+  // null if there is none.
+  {
+    Node<T> node = root;
+    while (node != null)
+    {
+      int result = comp.compare(target, node.info);
+      if (result < 0)
+      {
+        if (node.leftThread)
+          return null;
+        node = node.left;              // Search left subtree
+      }
+      else if (result > 0)
+      {
+        if (node.rightThread)
+          return null;
+        node = node.right;             // Search right subtree
+      }
+      else
+        return node;                   // target is found
+    }
+    return null;
+  }
+
+  private Node<T> ceilingNode(T target)
+  // Returns the smallest node with info e such that
+  // comp.compare(e, target) >= 0, or null if there is none.
+  {
+    Node<T> result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) <= 0)
+      {
+        result = node;                 // Candidate, look for a smaller one
+        node = node.leftThread ? null : node.left;
+      }
+      else
+        node = node.rightThread ? null : node.right;
+    }
+    return result;
+  }
+
+  public T ceiling(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) >= 0; if no such element exists, returns null.
+  {
+    Node<T> node = ceilingNode(target);
+    return (node == null) ? null : node.info;
+  }
+
+  public T floor(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) <= 0; if no such element exists, returns null.
+  {
+    T result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) >= 0)
+      {
+        result = node.info;            // Candidate, look for a larger one
+        node = node.rightThread ? null : node.right;
+      }
+      else
+        node = node.leftThread ? null : node.left;
+    }
+    return result;
+  }
+
+  public T higher(T target)
+  // Returns the smallest element e of this BST such that
+  // comp.compare(e, target) > 0; if no such element exists, returns null.
+  {
+    T result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) < 0)
+      {
+        result = node.info;            // Candidate, look for a smaller one
+        node = node.leftThread ? null : node.left;
+      }
+      else
+        node = node.rightThread ? null : node.right;
+    }
+    return result;
+  }
+
+  public T lower(T target)
+  // Returns the largest element e of this BST such that
+  // comp.compare(e, target) < 0; if no such element exists, returns null.
+  {
+    T result = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      if (comp.compare(target, node.info) > 0)
+      {
+        result = node.info;            // Candidate, look for a larger one
+        node = node.rightThread ? null : node.right;
+      }
+      else
+        node = node.leftThread ? null : node.left;
+    }
+    return result;
+  }
+
+  public T successor(T target)
+  // Returns the element following an element i of this BST in inorder,
+  // where comp.compare(target, i) == 0; if no such i exists or i is the
+  // largest element, returns null. Once i is found, its successor is
+  // reached through a thread or down one path, without a second search.
+  {
+    Node<T> node = find(target);
+    if (node == null)
+      return null;
+    node = next(node);
+    return (node == null) ? null : node.info;
+  }
+
+  public T predecessor(T target)
+  // Returns the element before an element i of this BST in inorder, where
+  // comp.compare(target, i) == 0; if no such i exists or i is the smallest
+  // element, returns null.
+  {
+    Node<T> node = find(target);
+    if (node == null)
+      return null;
+    node = prev(node);
+    return (node == null) ? null : node.info;
+  }
+
+  public boolean contains (T target)
+  // Returns true if this BST contains a node with info i such that
+  // comp.compare(target, i) == 0; otherwise, returns false.
+  {
+    return find(target) != null;
+  }
+
+  public T get(T target)
+  // Returns info i from node of this BST where comp.compare(target, i) == 0;
+  // if no such node exists, returns null.
+  {
+    Node<T> node = find(target);
+    return (node == null) ? null : node.info;
+  }
+
+  private void addChild(Node<T> parent, boolean asLeft, T element)
+  // Adds a node holding element as the left child of parent if asLeft is
+  // true, otherwise as its right child, and threads it between its
+  // predecessor and successor.
+  {
+    Node<T> newNode = new Node<T>(element);
+    if (asLeft)
+    {
+      newNode.left = parent.left;      // parent's predecessor
+      newNode.right = parent;
+      parent.left = newNode;
+      parent.leftThread = false;
+    }
+    else
+    {
+      newNode.right = parent.right;    // parent's successor
+      newNode.left = parent;
+      parent.right = newNode;
+      parent.rightThread = false;
+    }
+    numElements++;
+  }
+
+  public boolean add (T element)
+  // Adds element to this BST. The tree retains its BST property.
+  {
+    if (root == null)
+    {
+      root = new Node<T>(element);
+      numElements++;
+      return true;
+    }
+    Node<T> node = root;
+    while (true)
+    {
+      if (comp.compare(element, node.info) <= 0)
+      {
+        if (node.leftThread)
+        {
+          addChild(node, true, element);
+          return true;
+        }
+        node = node.left;
+      }
+      else
+      {
+        if (node.rightThread)
+        {
+          addChild(node, false, element);
+          return true;
+        }
+        node = node.right;
+      }
+    }
+  }
+
+  public T getOrAdd(T key, Supplier<? extends T> supplier)
+  // Returns an element e of this BST such that comp.compare(key, e) == 0.
+  // If no such e exists, adds supplier.get() to the tree and returns it. One
+  // descent finds key or the place to add it.
+  {
+    if (root == null)
+    {
+      root = new Node<T>(supplier.get());
+      numElements++;
+      return root.info;
+    }
+    Node<T> node = root;
+    while (true)
+    {
+      int result = comp.compare(key, node.info);
+      if (result == 0)
+        return node.info;
+      else if (result < 0)
+      {
+        if (node.leftThread)
+        {
+          T element = supplier.get();
+          addChild(node, true, element);
+          return element;
+        }
+        node = node.left;
+      }
+      else
+      {
+        if (node.rightThread)
+        {
+          T element = supplier.get();
+          addChild(node, false, element);
+          return element;
+        }
+        node = node.right;
+      }
+    }
+  }
+
+  public boolean remove (T target)
+  // Removes a node with info i from tree such that comp.compare(target,i) == 0
+  // and returns true; if no such node exists, returns false.
+  {
+    Node<T> parent = null;
+    Node<T> node = root;
+    while (node != null)
+    {
+      int result = comp.compare(target, node.info);
+      if (result == 0)
+        break;
+      parent = node;
+      if (result < 0)
+        node = node.leftThread ? null : node.left;
+      else
+        node = node.rightThread ? null : node.right;
+    }
+    if (node == null)
+      return false;
+
+    if (!node.leftThread && !node.rightThread)
+    {
+      // Two children: move the info of the successor here and remove the
+      // successor, which has no left child
+      Node<T> succParent = node;
+      Node<T> succ = node.right;
+      while (!succ.leftThread)
+      {
+        succParent = succ;
+        succ = succ.left;
+      }
+      node.info = succ.info;
+      parent = succParent;
+      node = succ;
+    }
+    unlink(parent, node);
+    numElements--;
+    return true;
+  }
+
+  private void unlink(Node<T> parent, Node<T> node)
+  // Removes node, which has at most one child, from below parent (from the
+  // root if parent is null), and moves the threads that pointed to it.
+  {
+    boolean isLeft = (parent != null && parent.left == node && !parent.leftThread);
+    Node<T> replacement;
+    if (node.leftThread && node.rightThread)
+    {
+      // A leaf; its parent's link becomes a thread past it
+      if (parent == null)
+      {
+        root = null;
+        return;
+      }
+      if (isLeft)
+      {
+        parent.left = node.left;
+        parent.leftThread = true;
+      }
+      else
+      {
+        parent.right = node.right;
+        parent.rightThread = true;
+      }
+      return;
+    }
+    else if (!node.leftThread)
+    {
+      replacement = node.left;
+      last(replacement).right = node.right;   // Predecessor now threads past node
+    }
+    else
+    {
+      replacement = node.right;
+      first(replacement).left = node.left;    // Successor now threads back past node
+    }
+
+    if (parent == null)
+      root = replacement;
+    else if (isLeft)
+      parent.left = replacement;
+    else
+      parent.right = replacement;
+  }
+
+  public Iterator<T> getIterator(BSTInterface.Traversal orderType)
+  // Creates and returns an Iterator providing a traversal of the current tree
+  // in the order indicated by the argument. Inorder and preorder iterators
+  // follow the threads and keep only the next node; the postorder iterator
+  // keeps a stack of the path to it. The tree must not be changed while the
+  // iterator is in use.
+  {
+    if (orderType == BSTInterface.Traversal.Postorder)
+      return new PostorderIterator();
+    Node<T> start = null;
+    if (root != null && orderType == BSTInterface.Traversal.Inorder)
+      start = first(root);
+    else
+      start = root;
+    return new ThreadIterator(start, orderType, null);
+  }
+
+  private class ThreadIterator implements Iterator<T>
+  // Walks the tree from node along the threads, in inorder or preorder,
+  // stopping after the last element not greater than high if it is not null.
+  {
+    private final BSTInterface.Traversal orderType;
+    private final T high;
+    private Node<T> node;                // Next node, null when done
+
+    ThreadIterator(Node<T> node, BSTInterface.Traversal orderType, T high)
+    {
+      this.node = node;
+      this.orderType = orderType;
+      this.high = high;
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      if (node != null && high != null && comp.compare(node.info, high) > 0)
+        node = null;                     // Every remaining element is too large
+      return node != null;
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      if (!hasNext())
+        throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                   " in ThreadedBST iterator.\n");
+      T info = node.info;
+      if (orderType == BSTInterface.Traversal.Inorder)
+        node = ThreadedBST.this.next(node);
+      else if (!node.leftThread)
+        node = node.left;                // Preorder: left child comes next
+      else
+      {
+        // Preorder: follow successor threads up to a node with a right child
+        while (node != null && node.rightThread)
+          node = node.right;
+        if (node != null)
+          node = node.right;
+      }
+      return info;
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Use the remove method of the tree.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                            + "ThreadedBST iterator.\n");
+    }
+  }
+
+  private class PostorderIterator implements Iterator<T>
+  // Walks the tree in postorder. The stack holds the path from the root to
+  // the next node.
+  {
+    private final ArrayDeque<Node<T>> stack = new ArrayDeque<Node<T>>();
+
+    PostorderIterator()
+    {
+      pushPostorderPath(root);
+    }
+
+    private void pushPostorderPath(Node<T> node)
+    // Pushes the path from node to the first node of its subtree in postorder,
+    // going left whenever possible and right otherwise.
+    {
+      while (node != null)
+      {
+        stack.push(node);
+        if (!node.leftThread)
+          node = node.left;
+        else if (!node.rightThread)
+          node = node.right;
+        else
+          node = null;
+      }
+    }
+
+    public boolean hasNext()
+    // Returns true if the iteration has more elements; otherwise returns false.
+    {
+      return !stack.isEmpty();
+    }
+
+    public T next()
+    // Returns the next element in the iteration.
+    // Throws NoSuchElementException - if the iteration has no more elements
+    {
+      if (!hasNext())
+        throw new IndexOutOfBoundsException("illegal invocation of next " +
+                                   " in ThreadedBST iterator.\n");
+      Node<T> node = stack.pop();
+      if (!stack.isEmpty())
+      {
+        // After a left child comes the parent's right subtree
+        Node<T> parent = stack.peek();
+        if (!parent.leftThread && parent.left == node && !parent.rightThread)
+          pushPostorderPath(parent.right);
+      }
+      return node.info;
+    }
+
+    public void remove()
+    // Throws UnsupportedOperationException.
+    // Not supported. Use the remove method of the tree.
+    {
+      throw new UnsupportedOperationException("Unsupported remove attempted on "
+                                            + "ThreadedBST iterator.\n");
+    }
+  }
+
+  public Iterator<T> rangeIterator(T low, T high)
+  // Creates and returns an Iterator providing an inorder traversal of the
+  // elements e of this BST such that comp.compare(low, e) <= 0 and
+  // comp.compare(e, high) <= 0. Only the first element is searched for; the
+  // rest are reached through the threads.
+  {
+    return new ThreadIterator(ceilingNode(low), BSTInterface.Traversal.Inorder, high);
+  }
+
+  public Iterator<T> iterator()
+  // InOrder is the default, "natural" order.
+  {
+    return getIterator(BSTInterface.Traversal.Inorder);
+  }
+
+  public void printTree() {
+    printBinaryTree(root, 0);
+  }
+
+  private void printBinaryTree(Node<T> root, int level){
+    if(root==null)
+         return;
+    if(!root.rightThread)
+        printBinaryTree(root.right, level+1);
+    if(level!=0){
+        for(int i=0;i<level-1;i++)
+            System.out.print("|\t");
+        System.out.println("|-------"+root.info);
+    }
+    else
+        System.out.println(root.info);
+    if(!root.leftThread)
+        printBinaryTree(root.left, level+1);
+  }
+
+  // Returns true if tree is balanced, otherwise false
+  public boolean isBalanced() {
+    return recIsBalanced(root) != -1;
+  }
+
+  // Returns the height of the subtree rooted at node if it is balanced, otherwise returns -1.
+  private int recIsBalanced(Node<T> node) {
+    if (node == null)
+      return 0;
+    int leftHeight = node.leftThread ? 0 : recIsBalanced(node.left);
+    if (leftHeight == -1)
+      return -1;
+    int rightHeight = node.rightThread ? 0 : recIsBalanced(node.right);
+    if (rightHeight == -1)
+      return -1;
+    if (Math.abs(leftHeight - rightHeight) > 1)
+      return -1;
+    return 1 + Math.max(leftHeight, rightHeight);
+  }
+
+  public void rebalance()
+  // Restructures this BST into a balanced tree in O(n) time, keeping its
+  // nodes. The nodes are first chained in inorder through their right links,
+  // found by following the threads, and then relinked from that chain.
+  {
+    if (root == null)
+      return;
+    Node<T> node = first(root);
+    cursor = node;
+    while (node != null)
+    {
+      Node<T> successor = next(node);
+      node.right = successor;
+      node.rightThread = true;
+      node = successor;
+    }
+    previous = null;
+    root = recBuild(numElements);
+    cursor = null;
+    previous = null;
+  }
+
+  private Node<T> recBuild(int n)
+  // Links the next n nodes of the chain starting at cursor into a balanced
+  // tree and returns its root. The nodes are taken in inorder, so a missing
+  // left child is threaded to the node taken before and a missing right
+  // child to the node taken after.
+  {
+    if (n == 0)
+      return null;
+    int leftSize = (n - 1) / 2;
+    Node<T> left = recBuild(leftSize);
+    Node<T> node = cursor;
+    cursor = cursor.right;
+    if (left == null)
+    {
+      node.left = previous;
+      node.leftThread = true;
+    }
+    else
+    {
+      node.left = left;
+      node.leftThread = false;
+    }
+    previous = node;
+    Node<T> right = recBuild(n - 1 - leftSize);
+    if (right == null)
+    {
+      node.right = cursor;
+      node.rightThread = true;
+    }
+    else
+    {
+      node.right = right;
+      node.rightThread = false;
+    }
+    return node;
+  }
+}